@@ -0,0 +1,51 @@
+package com.onified.distribute.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "buffer.status.update")
+public class BufferStatusUpdateConfig {
+
+    /**
+     * Process locations concurrently instead of one after another
+     */
+    private Boolean parallelEnabled = true;
+
+    /**
+     * Upper bound on worker threads for the parallel run
+     */
+    private Integer maxThreads = 8;
+
+    /**
+     * Mongo connections left free for API traffic while the job runs
+     */
+    private Integer reservedConnections = 10;
+
+    /**
+     * Maximum time to wait for all locations to finish
+     */
+    private Integer runTimeoutMinutes = 120;
+
+    /**
+     * Number of buffer updates sent per unordered bulk write
+     */
+    private Integer writeBatchSize = 500;
+
+    /**
+     * Recalculate single buffers when consumption or order status events arrive
+     */
+    private Boolean incrementalEnabled = true;
+
+    /**
+     * Delay between drains of pending incremental recalculations
+     */
+    private Long incrementalFlushIntervalMs = 2000L;
+
+    /**
+     * Number of slowest locations reported at the end of a run
+     */
+    private Integer slowestLocationsToReport = 5;
+}
@@ -0,0 +1,31 @@
+package com.onified.distribute.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "consumption.profile")
+public class ConsumptionProfileConfig {
+
+    /**
+     * Recalculate each partition's profiles with one $group/$merge pipeline instead of pair by pair
+     */
+    private Boolean aggregationEnabled = false;
+
+    /**
+     * Number of trend and normalization updates sent per unordered bulk write after the merge
+     */
+    private Integer writeBatchSize = 500;
+
+    /**
+     * Keep rolling per-pair consumption accumulators current from log ingest and read profiles from them
+     */
+    private Boolean incrementalEnabled = true;
+
+    /**
+     * When the rolling accumulators are rebuilt from the logs to correct drift
+     */
+    private String windowRecomputeCron = "0 55 18 * * SUN";
+}
@@ -0,0 +1,32 @@
+package com.onified.distribute.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "consumption.series")
+public class ConsumptionSeriesConfig {
+
+    /**
+     * Hold recent daily consumption per product-location pair in memory and answer window reads from it
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Days of history kept per pair; reads over longer windows go to Mongo
+     */
+    private Integer retentionDays = 60;
+
+    /**
+     * Pair slots allocated up front; the store grows past this as new pairs appear
+     */
+    private Integer initialPairCapacity = 4096;
+
+    /**
+     * Reads go to Mongo once the last full load is older than this. The store reloads at startup, after the
+     * daily SAP sync and before the buffer status update, so the default spans one day plus some slack.
+     */
+    private Integer maxStalenessMinutes = 1500;
+}
@@ -0,0 +1,36 @@
+package com.onified.distribute.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "replenishment.queue.generation")
+public class ReplenishmentQueueGenerationConfig {
+
+    /**
+     * Generate location partitions concurrently instead of one after another
+     */
+    private Boolean parallelEnabled = true;
+
+    /**
+     * Upper bound on worker threads for the parallel run
+     */
+    private Integer maxThreads = 8;
+
+    /**
+     * Mongo connections left free for API traffic while the job runs
+     */
+    private Integer reservedConnections = 10;
+
+    /**
+     * Maximum time to wait for all partitions to finish
+     */
+    private Integer runTimeoutMinutes = 120;
+
+    /**
+     * Number of active buffers read per page of a partition
+     */
+    private Integer pageSize = 1000;
+}
@@ -0,0 +1,16 @@
+package com.onified.distribute.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "replenishment.queue.summary")
+public class ReplenishmentQueueSummaryConfig {
+
+    /**
+     * How long a computed dashboard summary is served before it is recomputed; 0 disables the cache
+     */
+    private Integer cacheTtlSeconds = 30;
+}
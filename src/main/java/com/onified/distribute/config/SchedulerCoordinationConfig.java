@@ -0,0 +1,26 @@
+package com.onified.distribute.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "scheduler.coordination")
+public class SchedulerCoordinationConfig {
+
+    /**
+     * Number of location hash partitions each job run is split into; must match on every replica
+     */
+    private Integer partitionCount = 16;
+
+    /**
+     * A partition lease not renewed within this time can be taken over by another replica
+     */
+    private Integer leaseTtlSeconds = 90;
+
+    /**
+     * Interval at which held leases are renewed
+     */
+    private Integer heartbeatIntervalSeconds = 30;
+}
@@ -1,5 +1,6 @@
 package com.onified.distribute.controller;
 
+import com.onified.distribute.dto.CursorSliceDTO;
 import com.onified.distribute.dto.DailyConsumptionLogDTO;
 import com.onified.distribute.service.consumption.DailyConsumptionLogService;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import java.time.LocalDateTime;
 
@@ -70,6 +72,22 @@ public class DailyConsumptionLogController {
         return ResponseEntity.ok(logs);
     }
 
+    /**
+     * Keyset alternative to the paged listing: pass the returned nextCursor as after to get the following page
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorSliceDTO<DailyConsumptionLogDTO>> getDailyConsumptionLogsAfterCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int size,
+            @RequestParam(defaultValue = "consumptionDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+        log.info("Fetching daily consumption logs after cursor - size: {}", size);
+
+        Sort.Order order = sortDir.equalsIgnoreCase("desc") ? Sort.Order.desc(sortBy) : Sort.Order.asc(sortBy);
+        CursorSliceDTO<DailyConsumptionLogDTO> logs = dailyConsumptionLogService.getDailyConsumptionLogsAfter(order, after, size);
+        return ResponseEntity.ok(logs);
+    }
+
     @GetMapping("/product/{productId}")
     public ResponseEntity<Page<DailyConsumptionLogDTO>> getDailyConsumptionLogsByProduct(
             @PathVariable String productId,
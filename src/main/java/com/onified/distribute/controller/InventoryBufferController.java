@@ -1,5 +1,6 @@
 package com.onified.distribute.controller;
 
+import com.onified.distribute.dto.CursorSliceDTO;
 import com.onified.distribute.dto.InventoryBufferDTO;
 import com.onified.distribute.scheduler.BufferStatusUpdateScheduler;
 import com.onified.distribute.service.dbm.InventoryBufferService;
@@ -10,12 +11,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import com.onified.distribute.util.ExportFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
 import java.util.HashMap;
@@ -70,6 +76,39 @@ public class InventoryBufferController {
         return ResponseEntity.ok(buffer);
     }
 
+    /**
+     * Keyset alternative to the paged listing: pass the returned nextCursor as after to get the following page
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorSliceDTO<InventoryBufferDTO>> getInventoryBuffersAfterCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int size,
+            @RequestParam(defaultValue = "updatedAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+        log.info("Fetching inventory buffers after cursor - size: {}", size);
+
+        Sort.Order order = sortDir.equalsIgnoreCase("desc") ? Sort.Order.desc(sortBy) : Sort.Order.asc(sortBy);
+        CursorSliceDTO<InventoryBufferDTO> buffers = inventoryBufferService.getInventoryBuffersAfter(order, after, size);
+        return ResponseEntity.ok(buffers);
+    }
+
+    /**
+     * Stream every buffer as NDJSON or CSV without loading the result set into memory
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInventoryBuffers(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        log.info("Exporting inventory buffers as {}", exportFormat);
+
+        StreamingResponseBody body = out -> inventoryBufferService.exportInventoryBuffers(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"inventory-buffers." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping
     public ResponseEntity<Page<InventoryBufferDTO>> getAllInventoryBuffers(
             @RequestParam(defaultValue = "0") @Min(0) int page,
@@ -0,0 +1,39 @@
+package com.onified.distribute.controller;
+
+import com.onified.distribute.dto.JobRunDTO;
+import com.onified.distribute.service.job.JobRunService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/job-runs")
+@RequiredArgsConstructor
+public class JobRunController {
+
+    private final JobRunService jobRunService;
+
+    @GetMapping
+    public ResponseEntity<Page<JobRunDTO>> getRecentRuns(
+            @RequestParam(required = false) String jobName,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Fetching recent job runs - jobName: {}, page: {}, size: {}", jobName, page, size);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("startedAt").descending());
+        Page<JobRunDTO> runs = jobRunService.getRecentRuns(jobName, pageable);
+        return ResponseEntity.ok(runs);
+    }
+
+    @GetMapping("/{runId}")
+    public ResponseEntity<JobRunDTO> getRunByRunId(@PathVariable String runId) {
+        log.info("Fetching job run: {}", runId);
+        JobRunDTO run = jobRunService.getRunByRunId(runId);
+        return ResponseEntity.ok(run);
+    }
+}
@@ -7,17 +7,25 @@ import com.onified.distribute.repository.LeadTimeRepository;
 import com.onified.distribute.repository.ProductRepository;
 import com.onified.distribute.service.order.ReplenishmentOverrideLogService;
 import com.onified.distribute.service.order.ReplenishmentQueueService;
+import com.onified.distribute.service.order.ReplenishmentQueueViewService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import com.onified.distribute.util.ExportFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 
 import java.util.*;
 import java.util.HashMap;
@@ -27,6 +35,7 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/v1/replenishment-queue")
 @RequiredArgsConstructor
+@Validated
 public class ReplenishmentQueueController {
 
     private final ReplenishmentQueueService replenishmentQueueService;
@@ -34,6 +43,7 @@ public class ReplenishmentQueueController {
     private final ConsumptionProfileRepository consumptionProfileRepository;
     private final LeadTimeRepository leadTimeRepository;
     private final ProductRepository productRepository;
+    private final ReplenishmentQueueViewService replenishmentQueueViewService;
 
 
     @GetMapping("/enhanced")
@@ -103,6 +113,72 @@ public class ReplenishmentQueueController {
         return ResponseEntity.ok(queues);
     }
 
+    /**
+     * Keyset alternative to /filtered: pass the returned nextCursor as after to get the following page.
+     * Each page costs the same regardless of depth, and no total is counted.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorSliceDTO<ReplenishmentQueueResponseDTO>> getReplenishmentQueuesAfterCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int size,
+            @RequestParam(defaultValue = "priorityScore") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String productId,
+            @RequestParam(required = false) String locationId,
+            @RequestParam(required = false) String bufferZone,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer minBufferGap,
+            @RequestParam(required = false) Integer maxBufferGap,
+            @RequestParam(required = false) Double minDaysOfSupply,
+            @RequestParam(required = false) Double maxDaysOfSupply,
+            @RequestParam(required = false) String recommendedAction,
+            @RequestParam(required = false) Double minPriorityScore,
+            @RequestParam(required = false) Double maxPriorityScore) {
+
+        log.info("Fetching replenishment queues after cursor - size: {}, sortBy: {}, sortDir: {}", size, sortBy, sortDir);
+
+        ReplenishmentQueueFilterDTO filters = new ReplenishmentQueueFilterDTO(productId, locationId, bufferZone, status,
+                minBufferGap, maxBufferGap, minDaysOfSupply, maxDaysOfSupply, recommendedAction,
+                minPriorityScore, maxPriorityScore);
+        Sort.Order order = sortDir.equalsIgnoreCase("desc") ? Sort.Order.desc(sortBy) : Sort.Order.asc(sortBy);
+
+        CursorSliceDTO<ReplenishmentQueueResponseDTO> queues =
+                replenishmentQueueService.getReplenishmentQueuesAfter(filters, order, after, size);
+        return ResponseEntity.ok(queues);
+    }
+
+    /**
+     * Stream the queue rows matching the filters as NDJSON or CSV, in priority order, without paging
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReplenishmentQueue(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String productId,
+            @RequestParam(required = false) String locationId,
+            @RequestParam(required = false) String bufferZone,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer minBufferGap,
+            @RequestParam(required = false) Integer maxBufferGap,
+            @RequestParam(required = false) Double minDaysOfSupply,
+            @RequestParam(required = false) Double maxDaysOfSupply,
+            @RequestParam(required = false) String recommendedAction,
+            @RequestParam(required = false) Double minPriorityScore,
+            @RequestParam(required = false) Double maxPriorityScore) {
+
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        ReplenishmentQueueFilterDTO filters = new ReplenishmentQueueFilterDTO(productId, locationId, bufferZone, status,
+                minBufferGap, maxBufferGap, minDaysOfSupply, maxDaysOfSupply, recommendedAction,
+                minPriorityScore, maxPriorityScore);
+        log.info("Exporting replenishment queue as {} with filters: {}", exportFormat, filters);
+
+        StreamingResponseBody body = out -> replenishmentQueueViewService.exportQueueItems(filters, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"replenishment-queue." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
     @PostMapping("/filtered")
     public ResponseEntity<Page<ReplenishmentQueueResponseDTO>> getReplenishmentQueuesWithFiltersPost(
             @RequestParam(defaultValue = "0") int page,
@@ -129,19 +205,30 @@ public class ReplenishmentQueueController {
         log.info("Fetching filters summary");
 
         Map<String, Object> summary = new HashMap<>();
+        ReplenishmentQueueSummaryDTO counts = replenishmentQueueViewService.getSummary();
 
-        // Get distinct values for filter dropdowns
-        List<String> bufferZones = Arrays.asList("RED", "YELLOW", "GREEN");
-        List<String> statuses = Arrays.asList("PENDING", "PROCESSED", "CANCELED");
-        List<String> recommendedActions = Arrays.asList("ORDER", "EXPEDITE", "MONITOR");
+        // Filter dropdown values: the known ones first, then any others present in the queue
+        summary.put("bufferZones", dropdownValues(Arrays.asList("RED", "YELLOW", "GREEN"), counts.getBufferZoneCounts()));
+        summary.put("statuses", dropdownValues(Arrays.asList("PENDING", "PROCESSED", "CANCELED"), counts.getStatusCounts()));
+        summary.put("recommendedActions", dropdownValues(Arrays.asList("ORDER", "EXPEDITE", "MONITOR"), counts.getRecommendedActionCounts()));
 
-        summary.put("bufferZones", bufferZones);
-        summary.put("statuses", statuses);
-        summary.put("recommendedActions", recommendedActions);
+        summary.put("totalItems", counts.getTotalItems());
+        summary.put("bufferZoneCounts", counts.getBufferZoneCounts());
+        summary.put("statusCounts", counts.getStatusCounts());
+        summary.put("recommendedActionCounts", counts.getRecommendedActionCounts());
+        summary.put("totalBufferGap", counts.getTotalBufferGap());
+        summary.put("minPriorityScore", counts.getMinPriorityScore());
+        summary.put("maxPriorityScore", counts.getMaxPriorityScore());
 
         return ResponseEntity.ok(summary);
     }
 
+    private List<String> dropdownValues(List<String> knownValues, Map<String, Long> counts) {
+        Set<String> values = new LinkedHashSet<>(knownValues);
+        values.addAll(counts.keySet());
+        return new ArrayList<>(values);
+    }
+
     @GetMapping
     public ResponseEntity<Page<ReplenishmentQueueDTO>> getAllReplenishmentQueues(
             @RequestParam(defaultValue = "0") int page,
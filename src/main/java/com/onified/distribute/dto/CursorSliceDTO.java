@@ -0,0 +1,27 @@
+package com.onified.distribute.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One keyset page. There is no total count; pass nextCursor back as the after token while hasNext is true.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorSliceDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public <R> CursorSliceDTO<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().map(mapper).collect(Collectors.toList());
+        return new CursorSliceDTO<>(mapped, size, hasNext, nextCursor);
+    }
+}
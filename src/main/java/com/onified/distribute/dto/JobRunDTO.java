@@ -0,0 +1,23 @@
+package com.onified.distribute.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class JobRunDTO {
+    private String runId;
+    private String jobName;
+    private String stage;
+    private Integer completedLocationCount;
+    private String checkpointKey;
+    private Long processedCount;
+    private Long updatedCount;
+    private Long errorCount;
+    private Integer resumeCount;
+    private LocalDateTime startedAt;
+    private LocalDateTime lastCheckpointAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private Double itemsPerSecond;
+    private String errorMessage;
+}
@@ -0,0 +1,16 @@
+package com.onified.distribute.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Distinct product-location pair returned by $group aggregations
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLocationPairDTO {
+    private String productId;
+    private String locationId;
+}
@@ -0,0 +1,14 @@
+package com.onified.distribute.dto;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Per-product quantity total returned by location-level $group aggregations
+ */
+@Data
+public class ProductQuantityTotalDTO {
+    @Id
+    private String productId;
+    private Integer totalQuantity;
+}
@@ -0,0 +1,21 @@
+package com.onified.distribute.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplenishmentQueueSummaryDTO {
+    private long totalItems;
+    private Map<String, Long> bufferZoneCounts = new LinkedHashMap<>();
+    private Map<String, Long> statusCounts = new LinkedHashMap<>();
+    private Map<String, Long> recommendedActionCounts = new LinkedHashMap<>();
+    private long totalBufferGap;
+    private Double minPriorityScore;
+    private Double maxPriorityScore;
+}
@@ -0,0 +1,39 @@
+package com.onified.distribute.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted rolling consumption accumulators of one product-location pair, see RollingConsumptionWindow.
+ * The id is "productId|locationId". Writers compare and bump version, so a log applied while a full
+ * recompute replaces the document is retried against the recomputed state.
+ */
+@Data
+@Document(collection = "consumption_window_state")
+public class ConsumptionWindowState {
+    @Id
+    private String id;
+    private String productId;
+    @Indexed
+    private String locationId;
+    private LocalDate anchorDay;
+    private double[] dailyTotals;
+    private int[] dailyCounts;
+    private double[] dailySquares;
+    private double[] windowSums;
+    private int[] windowCounts;
+    private Double deviationSquares;
+    private Long version;
+    private LocalDateTime recomputedAt;
+    private String recomputedBy;
+    private LocalDateTime updatedAt;
+
+    public static String idOf(String productId, String locationId) {
+        return productId + "|" + locationId;
+    }
+}
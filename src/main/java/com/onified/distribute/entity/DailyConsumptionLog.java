@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 @Document(collection = "daily_consumption_log")
 @CompoundIndex(name = "productId_locationId_consumptionDate", def = "{'productId': 1, 'locationId': 1, 'consumptionDate': -1}")
 @CompoundIndex(name = "locationId_consumptionDate", def = "{'locationId': 1, 'consumptionDate': -1}")
+@CompoundIndex(name = "consumptionDate_id", def = "{'consumptionDate': -1, '_id': -1}")
 public class DailyConsumptionLog {
     @Id
     private String id;
@@ -14,6 +14,8 @@ import java.time.LocalDateTime;
 @CompoundIndex(name = "currentZone_isActive", def = "{'current_zone': 1, 'is_active': 1}")
 @CompoundIndex(name = "locationId_currentZone", def = "{'location_id': 1, 'current_zone': 1}")
 @CompoundIndex(name = "review_cycle_id", def = "{'review_cycle_id': 1}")
+@CompoundIndex(name = "updatedAt_id", def = "{'updated_at': -1, '_id': -1}")
+@CompoundIndex(name = "createdAt_id", def = "{'created_at': -1, '_id': -1}")
 public class InventoryBuffer {
 
     @Id
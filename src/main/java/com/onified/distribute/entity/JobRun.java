@@ -0,0 +1,52 @@
+package com.onified.distribute.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Document(collection = "job_runs")
+@CompoundIndex(name = "jobName_startedAt", def = "{'jobName': 1, 'startedAt': -1}")
+@CompoundIndex(name = "jobName_stage_startedAt", def = "{'jobName': 1, 'stage': 1, 'startedAt': -1}")
+@CompoundIndex(name = "jobName_running", def = "{'jobName': 1}", unique = true, partialFilter = "{'stage': 'RUNNING'}")
+public class JobRun {
+
+    public static final String BUFFER_STATUS_UPDATE = "BUFFER_STATUS_UPDATE";
+    public static final String REPLENISHMENT_QUEUE_GENERATION = "REPLENISHMENT_QUEUE_GENERATION";
+    public static final String CONSUMPTION_PROFILE_RECALCULATION = "CONSUMPTION_PROFILE_RECALCULATION";
+    public static final String CONSUMPTION_WINDOW_RECOMPUTE = "CONSUMPTION_WINDOW_RECOMPUTE";
+    public static final String SAP_DAILY_SYNC = "SAP_DAILY_SYNC";
+
+    public static final String BUFFER_STATUS_UPDATE_CRON = "0 10 19 * * MON-FRI";
+    public static final String REPLENISHMENT_QUEUE_GENERATION_CRON = "0 20 19 * * ?";
+    public static final String CONSUMPTION_PROFILE_RECALCULATION_CRON = "0 0 19 * * ?";
+    public static final String SAP_DAILY_SYNC_CRON = "0 50 18 * * ?";
+
+    public static final String STAGE_RUNNING = "RUNNING";
+    public static final String STAGE_COMPLETED = "COMPLETED";
+    public static final String STAGE_FAILED = "FAILED";
+    public static final String STAGE_ABANDONED = "ABANDONED";
+
+    @Id
+    private String id;
+    @Indexed(unique = true)
+    private String runId;
+    private String jobName;
+    private String stage;
+    private List<String> completedLocationIds;
+    private String checkpointKey;
+    private Long processedCount;
+    private Long updatedCount;
+    private Long errorCount;
+    private Integer resumeCount;
+    private LocalDateTime startedAt;
+    private LocalDateTime lastCheckpointAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private String errorMessage;
+}
@@ -5,6 +5,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -14,6 +15,9 @@ import java.util.List;
 @CompoundIndex(name = "priorityScore_status", def = "{'priorityScore': -1, 'status': 1}")
 @CompoundIndex(name = "locationId_status_priorityScore", def = "{'locationId': 1, 'status': 1, 'priorityScore': -1}")
 @CompoundIndex(name = "bufferZone_status", def = "{'bufferZone': 1, 'status': 1}")
+@CompoundIndex(name = "productId_locationId_queueDay", def = "{'productId': 1, 'locationId': 1, 'queueDay': 1}",
+        unique = true, partialFilter = "{'queueDay': {$exists: true}}")
+@CompoundIndex(name = "locationId_isActive_queueDate", def = "{'locationId': 1, 'isActive': 1, 'queueDate': 1}")
 public class ReplenishmentQueue {
     @Id
     private String id;
@@ -38,6 +42,7 @@ public class ReplenishmentQueue {
     private List<String> reasonCodes;
     @Indexed
     private LocalDateTime queueDate;
+    private LocalDate queueDay;
     private String processedBy;
     private LocalDateTime processedAt;
     private String actionTaken;
@@ -0,0 +1,56 @@
+package com.onified.distribute.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Denormalized read model of the active replenishment queue. The id is the queue row's id, and product name,
+ * location name, MOQ and final quantity are resolved when the row is written instead of on every read.
+ * Zone, status and action are kept as written on the queue row, with trimmed upper-case copies for the filters.
+ */
+@Data
+@Document(collection = "replenishment_queue_view")
+@CompoundIndex(name = "productId_locationId", def = "{'productId': 1, 'locationId': 1}")
+@CompoundIndex(name = "locationId_queueDate", def = "{'locationId': 1, 'queueDate': 1}")
+@CompoundIndex(name = "locationId_statusNormalized_priorityScore", def = "{'locationId': 1, 'statusNormalized': 1, 'priorityScore': -1}")
+@CompoundIndex(name = "bufferZoneNormalized_statusNormalized_priorityScore", def = "{'bufferZoneNormalized': 1, 'statusNormalized': 1, 'priorityScore': -1}")
+@CompoundIndex(name = "statusNormalized_priorityScore", def = "{'statusNormalized': 1, 'priorityScore': -1}")
+@CompoundIndex(name = "priorityScore_id", def = "{'priorityScore': -1, '_id': -1}")
+@CompoundIndex(name = "queueDate_id", def = "{'queueDate': -1, '_id': -1}")
+public class ReplenishmentQueueView {
+    @Id
+    private String id;
+    @Indexed
+    private String queueId;
+    private String productId;
+    private String productName;
+    private String locationId;
+    private String locationName;
+    private Integer bufferUnits;
+    private Integer inHand;
+    private Integer inPipeline;
+    private Integer netAvailability;
+    @Indexed
+    private Integer bufferGap;
+    private Integer finalQuantity;
+    private Integer moq;
+    @Indexed
+    private Double daysOfSupply;
+    private String bufferZone;
+    private String recommendedAction;
+    @Indexed
+    private Double priorityScore;
+    private String status;
+    @Indexed
+    private LocalDateTime queueDate;
+    private List<String> reasonCodes;
+    private String bufferZoneNormalized;
+    private String recommendedActionNormalized;
+    private String statusNormalized;
+}
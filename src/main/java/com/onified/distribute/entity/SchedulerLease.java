@@ -0,0 +1,32 @@
+package com.onified.distribute.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Claim on one location partition of a scheduled job run. The id is "runKey:partition",
+ * so at most one replica can hold a partition of a run at a time.
+ */
+@Data
+@Document(collection = "scheduler_leases")
+@CompoundIndex(name = "runKey_completed", def = "{'runKey': 1, 'completed': 1}")
+public class SchedulerLease {
+
+    @Id
+    private String id;
+    private String runKey;
+    private String jobName;
+    private Integer partition;
+    private String owner;
+    private String checkpointKey;
+    private Boolean completed;
+    @Indexed(name = "claimedAt_ttl", expireAfterSeconds = 604800)
+    private LocalDateTime claimedAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime completedAt;
+}
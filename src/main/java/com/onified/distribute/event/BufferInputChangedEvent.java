@@ -0,0 +1,18 @@
+package com.onified.distribute.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Published when consumption or open orders change for a product at a location,
+ * so the matching buffer's zone can be recalculated without a full scan.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class BufferInputChangedEvent {
+    private final String productId;
+    private final String locationId;
+    private final String source;
+}
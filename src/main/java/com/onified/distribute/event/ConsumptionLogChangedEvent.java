@@ -0,0 +1,24 @@
+package com.onified.distribute.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a daily consumption log row is added or removed, carrying the row itself so rolling
+ * consumption state can be adjusted without re-reading the log collection. An edit is a removal of the
+ * old row followed by an addition of the new one. changedAt is taken before the write reaches Mongo.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ConsumptionLogChangedEvent {
+    private final String productId;
+    private final String locationId;
+    private final LocalDateTime consumptionDate;
+    private final Integer quantityConsumed;
+    private final boolean removed;
+    private final LocalDateTime changedAt;
+}
@@ -0,0 +1,58 @@
+package com.onified.distribute.event;
+
+import com.onified.distribute.entity.LeadTime;
+import com.onified.distribute.entity.Location;
+import com.onified.distribute.entity.Product;
+import com.onified.distribute.entity.ReplenishmentQueue;
+import com.onified.distribute.service.order.ReplenishmentQueueViewService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+
+/**
+ * Keeps replenishment_queue_view in step with saves of queue rows and of the products, locations and
+ * lead times it denormalizes. Bulk writes bypass these events and refresh the view themselves.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReplenishmentQueueViewListener extends AbstractMongoEventListener<Object> {
+
+    private final ReplenishmentQueueViewService replenishmentQueueViewService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Object source = event.getSource();
+        try {
+            if (source instanceof ReplenishmentQueue) {
+                replenishmentQueueViewService.refreshQueueItems(Collections.singletonList((ReplenishmentQueue) source));
+            } else if (source instanceof Product) {
+                replenishmentQueueViewService.refreshProduct(((Product) source).getProductId());
+            } else if (source instanceof Location) {
+                replenishmentQueueViewService.refreshLocation(((Location) source).getLocationId());
+            } else if (source instanceof LeadTime) {
+                LeadTime leadTime = (LeadTime) source;
+                replenishmentQueueViewService.refreshLeadTime(leadTime.getProductId(), leadTime.getLocationId());
+            }
+        } catch (Exception e) {
+            log.error("Error refreshing replenishment queue view after saving {}: {}",
+                    source.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        if (!ReplenishmentQueue.class.equals(event.getType()) || event.getDocument() == null) {
+            return;
+        }
+        Object id = event.getDocument().get("_id");
+        if (id != null) {
+            replenishmentQueueViewService.removeQueueItem(id.toString());
+        }
+    }
+}
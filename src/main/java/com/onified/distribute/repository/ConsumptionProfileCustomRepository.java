@@ -0,0 +1,40 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.entity.ConsumptionProfile;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ConsumptionProfileCustomRepository {
+
+    /**
+     * Writes the calculated fields of the profile for its product-location pair in one upsert and returns
+     * the stored document. A null lastConsumptionDate keeps the stored value.
+     */
+    ConsumptionProfile upsertCalculatedProfile(ConsumptionProfile profile);
+
+    /**
+     * Groups the last 60 days of logs at the given locations (all locations when null) by pair and $merges the
+     * window ADCs, deviation, CV and latest log date into consumption_profile, stamped with calculatedAt.
+     * Trend and adcNormalized are left for the caller.
+     */
+    void mergeProfilesFromLogs(Collection<String> locationIds, LocalDateTime calculatedAt);
+
+    /**
+     * Zeroes the statistics of profiles at the given locations whose latest log is older than windowStart,
+     * which the merge does not reach, and stamps them with calculatedAt
+     */
+    long resetProfilesWithoutLogsSince(Collection<String> locationIds, LocalDateTime windowStart, LocalDateTime calculatedAt);
+
+    /**
+     * Profiles at the given locations (all locations when null) stamped with calculatedAt; callers must close the stream
+     */
+    Stream<ConsumptionProfile> streamByCalculationDate(Collection<String> locationIds, LocalDateTime calculatedAt);
+
+    /**
+     * Sets adcTrend, trendConfidence and adcNormalized of each profile by id in one unordered bulk write
+     */
+    void bulkUpdateTrendAndNormalization(List<ConsumptionProfile> profiles);
+}
@@ -11,7 +11,7 @@ import java.util.Optional;
 import java.util.List;
 
 @Repository
-public interface ConsumptionProfileRepository extends MongoRepository<ConsumptionProfile, String> {
+public interface ConsumptionProfileRepository extends MongoRepository<ConsumptionProfile, String>, ConsumptionProfileCustomRepository {
 
     // New method for category filtering
     @Query("{'productId': {$in: ?0}}")
@@ -20,6 +20,9 @@ public interface ConsumptionProfileRepository extends MongoRepository<Consumptio
     // Find by Product and Location (unique combination)
     Optional<ConsumptionProfile> findByProductIdAndLocationId(String productId, String locationId);
 
+    // Batch lookup for a page of product-location pairs; callers filter to the exact pairs
+    List<ConsumptionProfile> findByProductIdInAndLocationIdIn(List<String> productIds, List<String> locationIds);
+
     // Find by Product ID
     Page<ConsumptionProfile> findByProductId(String productId, Pageable pageable);
 
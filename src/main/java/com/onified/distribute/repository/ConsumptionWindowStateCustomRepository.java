@@ -0,0 +1,35 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.entity.ConsumptionWindowState;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface ConsumptionWindowStateCustomRepository {
+
+    /**
+     * Writes the state only if the stored version still equals expectedVersion (or, when it is null, no state
+     * exists yet) and bumps the version. Returns false when another writer got there first.
+     */
+    boolean saveIfVersion(ConsumptionWindowState state, Long expectedVersion);
+
+    /**
+     * Overwrites each state whose stored version still equals its entry in expectedVersions, or creates it when it
+     * has no entry and no state exists, in one unordered bulk write. Returns the number of states skipped because
+     * another writer changed them first.
+     */
+    int bulkReplaceIfVersion(Collection<ConsumptionWindowState> states, Map<String, Long> expectedVersions);
+
+    /**
+     * Stored version of every state at the given locations (all locations when null), keyed by id
+     */
+    Map<String, Long> findVersions(Collection<String> locationIds);
+
+    /**
+     * Removes states at the given locations (all locations when null) that the recompute at recomputedAt did not
+     * write and whose pair has no logs since windowStart. States ingest writes during the call are kept.
+     */
+    long deleteNotRecomputedWithoutLogs(Collection<String> locationIds, LocalDateTime recomputedAt,
+                                        LocalDateTime windowStart);
+}
@@ -0,0 +1,9 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.entity.ConsumptionWindowState;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ConsumptionWindowStateRepository extends MongoRepository<ConsumptionWindowState, String>, ConsumptionWindowStateCustomRepository {
+}
@@ -0,0 +1,30 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.dto.CursorSliceDTO;
+import com.onified.distribute.dto.ProductLocationPairDTO;
+import com.onified.distribute.entity.DailyConsumptionLog;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface DailyConsumptionLogCustomRepository {
+
+    /**
+     * Keyset page of logs after the opaque token (or from the start when null). Only consumptionDate
+     * seeks on an index; any other sort falls back to consumptionDate desc.
+     */
+    CursorSliceDTO<DailyConsumptionLog> findSliceAfter(Sort.Order order, String after, int size);
+
+    /**
+     * Every location id that has at least one log, read from the locationId index
+     */
+    List<String> findDistinctLocationIds();
+
+    /**
+     * Every product-location pair at the given locations that has at least one log, grouped on the server
+     * and read through a cursor. Callers must close the stream.
+     */
+    Stream<ProductLocationPairDTO> streamDistinctProductLocationPairs(Collection<String> locationIds);
+}
@@ -76,6 +76,7 @@
 
 package com.onified.distribute.repository;
 
+import com.onified.distribute.dto.ProductQuantityTotalDTO;
 import com.onified.distribute.entity.DailyConsumptionLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -89,7 +90,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DailyConsumptionLogRepository extends MongoRepository<DailyConsumptionLog, String> {
+public interface DailyConsumptionLogRepository extends MongoRepository<DailyConsumptionLog, String>, DailyConsumptionLogCustomRepository {
 
     // Find by Product and Location
     Page<DailyConsumptionLog> findByProductIdAndLocationId(String productId, String locationId, Pageable pageable);
@@ -102,6 +103,14 @@ public interface DailyConsumptionLogRepository extends MongoRepository<DailyCons
     Optional<Integer> sumQuantityConsumedBetweenDates(String productId, String locationId,
                                                       LocalDateTime startDate, LocalDateTime endDate);
 
+    // Sum quantity consumed per product for a whole location between dates
+    @Aggregation(pipeline = {
+            "{'$match': {'locationId': ?0, 'consumptionDate': {'$gte': ?1, '$lte': ?2}}}",
+            "{'$group': {'_id': '$productId', 'totalQuantity': {'$sum': '$quantityConsumed'}}}"
+    })
+    List<ProductQuantityTotalDTO> sumQuantityConsumedByProductBetweenDates(String locationId,
+                                                                          LocalDateTime startDate, LocalDateTime endDate);
+
     // Sum quantity consumed since a date using aggregation
     @Aggregation(pipeline = {
             "{'$match': {'productId': ?0, 'locationId': ?1, 'consumptionDate': {'$gte': ?2}}}",
@@ -150,4 +159,10 @@ public interface DailyConsumptionLogRepository extends MongoRepository<DailyCons
 
     @Query("{'productId': ?0, 'locationId': ?1, 'consumptionDate': {$gte: ?2}}")
     List<DailyConsumptionLog> findRecentConsumption(String productId, String locationId, LocalDateTime cutoff);
+
+    // Date and quantity only, oldest first, for single-pass profile statistics
+    @Query(value = "{'productId': ?0, 'locationId': ?1, 'consumptionDate': {$gte: ?2}}",
+            fields = "{'consumptionDate': 1, 'quantityConsumed': 1}",
+            sort = "{'consumptionDate': 1}")
+    List<DailyConsumptionLog> findConsumptionQuantitiesSince(String productId, String locationId, LocalDateTime cutoff);
 }
\ No newline at end of file
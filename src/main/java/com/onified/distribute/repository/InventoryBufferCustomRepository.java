@@ -0,0 +1,53 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.dto.CursorSliceDTO;
+import com.onified.distribute.entity.InventoryBuffer;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface InventoryBufferCustomRepository {
+
+    /**
+     * Distinct location ids of all active buffers, resolved on the server
+     */
+    List<String> findDistinctActiveLocationIds();
+
+    /**
+     * Cursor over the active buffers of a location, projected to the fields the status job reads.
+     * The caller must close the stream.
+     */
+    Stream<InventoryBuffer> streamActiveBuffersForStatusUpdate(String locationId);
+
+    /**
+     * Cursor over all buffers in _id order. The caller must close the stream.
+     */
+    Stream<InventoryBuffer> streamAll();
+
+    /**
+     * Next page of active buffers at the given locations in _id order, starting after the given id (or from the start when null)
+     */
+    List<InventoryBuffer> findActiveBuffersAfterId(String afterId, Collection<String> locationIds, int limit);
+
+    /**
+     * $set the status metrics of each buffer in one unordered bulk write.
+     * Returns the failed buffers keyed by document id with the write error message.
+     */
+    Map<String, String> bulkUpdateStatusMetrics(List<InventoryBuffer> buffers);
+
+    /**
+     * $inc in_pipeline_qty of each buffer by the given quantity in one ordered bulk write, so concurrent
+     * releases add up instead of overwriting each other. Missing or null quantities start from zero.
+     * Returns the buffers left unchanged by a write error, keyed by document id with the error message.
+     */
+    Map<String, String> bulkIncrementInPipelineQty(Map<String, Integer> qtyByBufferId);
+
+    /**
+     * Keyset page of buffers after the opaque token (or from the start when null). Only updatedAt and
+     * createdAt seek on an index; any other sort falls back to updatedAt desc.
+     */
+    CursorSliceDTO<InventoryBuffer> findSliceAfter(Sort.Order order, String after, int size);
+}
@@ -8,16 +8,19 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InventoryBufferRepository extends MongoRepository<InventoryBuffer, String> {
+public interface InventoryBufferRepository extends MongoRepository<InventoryBuffer, String>, InventoryBufferCustomRepository {
 
     // New method for category filtering
     @Query("{'product_id': {$in: ?0}, 'is_active': true}")
     Page<InventoryBuffer> findByProductIdIn(List<String> productIds, Pageable pageable);
 
+    List<InventoryBuffer> findByProductIdInAndLocationIdIn(Collection<String> productIds, Collection<String> locationIds);
+
     @Query("{'product_id': {$in: ?0}, 'current_zone': ?1, 'is_active': true}")
     Page<InventoryBuffer> findByProductIdInAndCurrentZone(List<String> productIds, String currentZone, Pageable pageable);
 
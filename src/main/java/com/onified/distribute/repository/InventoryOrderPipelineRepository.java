@@ -1,14 +1,18 @@
 package com.onified.distribute.repository;
 
+import com.onified.distribute.dto.ProductQuantityTotalDTO;
 import com.onified.distribute.entity.InventoryOrderPipeline;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface InventoryOrderPipelineRepository extends MongoRepository<InventoryOrderPipeline, String> {
@@ -34,9 +38,25 @@ public interface InventoryOrderPipelineRepository extends MongoRepository<Invent
 
     InventoryOrderPipeline findByOrderId(String orderId);
 
+    long deleteByOrderIdIn(Collection<String> orderIds);
+
     @Query("{'status': ?0, 'location_id': ?1}")
     Page<InventoryOrderPipeline> findByStatusAndLocationId(String status, String locationId, Pageable pageable);
 
+    // Sum outstanding ordered quantity per product for a location across the given statuses
+    @Aggregation(pipeline = {
+            "{'$match': {'location_id': ?0, 'status': {'$in': ?1}}}",
+            "{'$group': {'_id': '$product_id', 'totalQuantity': {'$sum': '$ordered_qty'}}}"
+    })
+    List<ProductQuantityTotalDTO> sumOrderedQtyByProductForLocationAndStatusIn(String locationId, List<String> statuses);
+
+    // Sum outstanding ordered quantity for one product at a location across the given statuses
+    @Aggregation(pipeline = {
+            "{'$match': {'product_id': ?0, 'location_id': ?1, 'status': {'$in': ?2}}}",
+            "{'$group': {'_id': null, 'totalQuantity': {'$sum': '$ordered_qty'}}}"
+    })
+    Optional<Integer> sumOrderedQtyForProductAndLocationAndStatusIn(String productId, String locationId, List<String> statuses);
+
     // MongoDB query to exclude DRAFT status with optional locationId filter
     @Query("{ 'status': { $ne: ?0 }, $and: [ { $or: [ { ?1: null }, { 'location_id': ?1 } ] } ] }")
     Page<InventoryOrderPipeline> findByStatusNotAndLocationId(String excludedStatus, String locationId, Pageable pageable);
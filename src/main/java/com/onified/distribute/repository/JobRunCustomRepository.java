@@ -0,0 +1,29 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.entity.JobRun;
+
+import java.time.LocalDateTime;
+
+public interface JobRunCustomRepository {
+
+    /**
+     * Atomically mark a location as done for a run and add its counters
+     */
+    void recordLocationCheckpoint(String runId, String locationId, long processed, long updated, long errors);
+
+    /**
+     * Atomically move a run's resume key forward and add the counters for the finished chunk
+     */
+    void recordCheckpoint(String runId, String checkpointKey, long processed, long updated, long errors);
+
+    /**
+     * Atomically move a failed run back to RUNNING; false when another replica already did
+     */
+    boolean reopenFailedRun(String runId);
+
+    /**
+     * Atomically $set the final stage of a run that is not completed yet, leaving the counters and completed
+     * locations peers keep adding to untouched. Returns the updated run, or null when it was already completed.
+     */
+    JobRun finishRun(String runId, String stage, String errorMessage, LocalDateTime finishedAt, Long durationMs);
+}
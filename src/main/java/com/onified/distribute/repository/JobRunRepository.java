@@ -0,0 +1,20 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.entity.JobRun;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JobRunRepository extends MongoRepository<JobRun, String>, JobRunCustomRepository {
+
+    Optional<JobRun> findByRunId(String runId);
+
+    Page<JobRun> findByJobName(String jobName, Pageable pageable);
+
+    Optional<JobRun> findFirstByJobNameAndStageInOrderByStartedAtDesc(String jobName, List<String> stages);
+}
@@ -0,0 +1,36 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.entity.ReplenishmentQueue;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ReplenishmentQueueCustomRepository {
+
+    /**
+     * Upsert each item on (productId, locationId, queueDay) in one unordered bulk write.
+     * Items already processed or canceled that day are left untouched.
+     * Returns the failed items keyed by "productId|locationId" with the write error message.
+     */
+    Map<String, String> bulkUpsertDailyItems(List<ReplenishmentQueue> items);
+
+    /**
+     * Deactivate the active items at the given locations queued before the cutoff
+     */
+    long deactivateItemsQueuedBefore(Collection<String> locationIds, LocalDateTime cutoff);
+
+    /**
+     * Move each item from pending to the status, action and order id set on it, in one unordered bulk write.
+     * An item only moves while it is still pending, so concurrent releases cannot both claim it.
+     * Returns the stored items this call claimed.
+     */
+    List<ReplenishmentQueue> claimPendingItems(List<ReplenishmentQueue> items);
+
+    /**
+     * Return claimed items to pending, clearing the action and order id. An item only moves back while it
+     * still holds the order id set on it, so a later release of the same item is left alone.
+     */
+    long releaseClaimedItems(List<ReplenishmentQueue> items);
+}
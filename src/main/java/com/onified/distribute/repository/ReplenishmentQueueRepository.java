@@ -7,42 +7,13 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ReplenishmentQueueRepository extends MongoRepository<ReplenishmentQueue, String> {
-
-    @Query("{ " +
-            "$and: [" +
-            "  { $or: [ { 'productId': { $regex: ?0, $options: 'i' } }, { ?0: null } ] }," +
-            "  { $or: [ { 'locationId': { $regex: ?1, $options: 'i' } }, { ?1: null } ] }," +
-            "  { $or: [ { 'bufferZone': { $regex: ?2, $options: 'i' } }, { ?2: null } ] }," +
-            "  { $or: [ { 'status': { $regex: ?3, $options: 'i' } }, { ?3: null } ] }," +
-            "  { $or: [ { 'bufferGap': { $gte: ?4 } }, { ?4: null } ] }," +
-            "  { $or: [ { 'bufferGap': { $lte: ?5 } }, { ?5: null } ] }," +
-            "  { $or: [ { 'daysOfSupply': { $gte: ?6 } }, { ?6: null } ] }," +
-            "  { $or: [ { 'daysOfSupply': { $lte: ?7 } }, { ?7: null } ] }," +
-            "  { $or: [ { 'recommendedAction': { $regex: ?8, $options: 'i' } }, { ?8: null } ] }," +
-            "  { $or: [ { 'priorityScore': { $gte: ?9 } }, { ?9: null } ] }," +
-            "  { $or: [ { 'priorityScore': { $lte: ?10 } }, { ?10: null } ] }," +
-            "  { 'isActive': true }" +
-            "] }")
-    Page<ReplenishmentQueue> findByFilters(
-            String productId,
-            String locationId,
-            String bufferZone,
-            String status,
-            Integer minBufferGap,
-            Integer maxBufferGap,
-            Double minDaysOfSupply,
-            Double maxDaysOfSupply,
-            String recommendedAction,
-            Double minPriorityScore,
-            Double maxPriorityScore,
-            Pageable pageable
-    );
+public interface ReplenishmentQueueRepository extends MongoRepository<ReplenishmentQueue, String>, ReplenishmentQueueCustomRepository {
 
     @Query("{ 'productId': { $in: ?0 }, 'isActive': true }")
     Page<ReplenishmentQueue> findByProductIdIn(List<String> productIds, Pageable pageable);
@@ -71,6 +42,8 @@ public interface ReplenishmentQueueRepository extends MongoRepository<Replenishm
     @Query("{'status': ?0, 'isActive': true}")
     Page<ReplenishmentQueue> findByStatusAndIsActiveTrue(String status, Pageable pageable);
 
+    List<ReplenishmentQueue> findByProductIdInAndLocationIdInAndQueueDay(List<String> productIds, List<String> locationIds, LocalDate queueDay);
+
     Optional<ReplenishmentQueue> findByProductIdAndLocationIdAndIsActiveTrue(String productId, String locationId);
 
     Page<ReplenishmentQueue> findByQueueIdAndIsActiveTrue(String queueId, Pageable pageable);
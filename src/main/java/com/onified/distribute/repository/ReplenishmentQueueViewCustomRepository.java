@@ -0,0 +1,60 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.dto.CursorSliceDTO;
+import com.onified.distribute.dto.ReplenishmentQueueFilterDTO;
+import com.onified.distribute.dto.ReplenishmentQueueSummaryDTO;
+import com.onified.distribute.entity.ReplenishmentQueueView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ReplenishmentQueueViewCustomRepository {
+
+    /**
+     * Page of view rows matching only the filters that are set. Ids match on an anchored prefix, zone,
+     * status and action on equality with their normalized copies, and the sort is limited to index-backed fields.
+     */
+    Page<ReplenishmentQueueView> findByFilters(ReplenishmentQueueFilterDTO filters, Pageable pageable);
+
+    /**
+     * Keyset page of view rows matching the same filters, after the opaque token (or from the start when null).
+     * No count is run. Only priorityScore and queueDate seek on an index; other sorts fall back to priorityScore desc.
+     */
+    CursorSliceDTO<ReplenishmentQueueView> findSliceByFilters(ReplenishmentQueueFilterDTO filters, Sort.Order order,
+                                                              String after, int size);
+
+    /**
+     * Cursor over the view rows matching the filters in priority order. The caller must close the stream.
+     */
+    Stream<ReplenishmentQueueView> streamByFilters(ReplenishmentQueueFilterDTO filters);
+
+    /**
+     * Counts per normalized bufferZone, status and recommendedAction, total bufferGap and the priorityScore range
+     * of all view rows, computed by one $facet aggregation
+     */
+    ReplenishmentQueueSummaryDTO summarize();
+
+    /**
+     * Replace each view row by id, inserting the missing ones, in one unordered bulk write
+     */
+    void bulkUpsert(List<ReplenishmentQueueView> views);
+
+    void updateProductName(String productId, String productName);
+
+    void updateLocationName(String locationId, String locationName);
+
+    /**
+     * Drop the rows at the given locations queued before the cutoff
+     */
+    long deleteQueuedBefore(Collection<String> locationIds, LocalDateTime cutoff);
+
+    /**
+     * Whether any row has a zone, status or action but not its normalized copy, as rows written before those fields do
+     */
+    boolean hasRowsMissingNormalizedFields();
+}
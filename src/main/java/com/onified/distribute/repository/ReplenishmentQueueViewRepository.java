@@ -0,0 +1,17 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.entity.ReplenishmentQueueView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReplenishmentQueueViewRepository extends MongoRepository<ReplenishmentQueueView, String>, ReplenishmentQueueViewCustomRepository {
+
+    Page<ReplenishmentQueueView> findByQueueId(String queueId, Pageable pageable);
+
+    List<ReplenishmentQueueView> findByProductIdAndLocationId(String productId, String locationId);
+}
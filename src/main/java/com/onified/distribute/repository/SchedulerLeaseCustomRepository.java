@@ -0,0 +1,27 @@
+package com.onified.distribute.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface SchedulerLeaseCustomRepository {
+
+    /**
+     * Atomically take a partition that is unclaimed, or whose lease has expired and is not completed.
+     * Returns false when another replica holds it or it is already done.
+     */
+    boolean tryClaim(String leaseId, String runKey, String jobName, int partition, String owner, LocalDateTime expiresAt);
+
+    /**
+     * Push out the expiry of the leases this replica still holds
+     */
+    void renewLeases(Collection<String> leaseIds, String owner, LocalDateTime expiresAt);
+
+    /**
+     * Expire a lease immediately so another replica can pick the partition up
+     */
+    void releaseLease(String leaseId, String owner);
+
+    void completeLease(String leaseId, String owner);
+
+    void recordCheckpoint(String leaseId, String owner, String checkpointKey);
+}
@@ -0,0 +1,15 @@
+package com.onified.distribute.repository;
+
+import com.onified.distribute.entity.SchedulerLease;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SchedulerLeaseRepository extends MongoRepository<SchedulerLease, String>, SchedulerLeaseCustomRepository {
+
+    List<SchedulerLease> findByRunKey(String runKey);
+
+    long countByRunKeyAndCompleted(String runKey, Boolean completed);
+}
@@ -5,4 +5,9 @@ import java.util.List;
 
 public interface SeasonalityAdjustmentCustomRepository {
     List<SeasonalityAdjustment> findSeasonalityMatrixData(String type, String locationId, String category, String productId, Integer year, Boolean isActive);
+
+    /**
+     * Active product-location adjustments with a factor, projected to productId, locationId, month, year and factor
+     */
+    List<SeasonalityAdjustment> findActivePairFactors();
 }
@@ -28,6 +28,10 @@ public interface SpecialEventRepository extends MongoRepository<SpecialEvent, St
 
     @Query("{'startDate': {$lte: ?0}, 'endDate': {$gte: ?0}, 'isActive': true}")
     Page<SpecialEvent> findCurrentEvents(LocalDateTime currentDate, Pageable pageable);
+
+    @Query(value = "{'startDate': {$lte: ?0}, 'endDate': {$gte: ?0}, 'isActive': true, 'productId': {$ne: null}, 'locationId': {$ne: null}}",
+           fields = "{'productId': 1, 'locationId': 1, 'changeFactor': 1}")
+    List<SpecialEvent> findCurrentPairEventFactors(LocalDateTime currentDate);
     
     @Query("{'startDate': {$gt: ?0}, 'isActive': true}")
     Page<SpecialEvent> findUpcomingEvents(LocalDateTime currentDate, Pageable pageable);
@@ -0,0 +1,179 @@
+package com.onified.distribute.repository.impl;
+
+import com.onified.distribute.entity.ConsumptionProfile;
+import com.onified.distribute.entity.DailyConsumptionLog;
+import com.onified.distribute.repository.ConsumptionProfileCustomRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+public class ConsumptionProfileCustomRepositoryImpl implements ConsumptionProfileCustomRepository {
+
+    private static final int[] WINDOW_DAYS = {7, 14, 30, 60};
+    private static final int DEVIATION_WINDOW_DAYS = 30;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public ConsumptionProfile upsertCalculatedProfile(ConsumptionProfile profile) {
+        Query query = Query.query(Criteria.where("productId").is(profile.getProductId())
+                .and("locationId").is(profile.getLocationId()));
+
+        Update update = new Update()
+                .set("adc7d", profile.getAdc7d())
+                .set("adc14d", profile.getAdc14d())
+                .set("adc30d", profile.getAdc30d())
+                .set("adc60d", profile.getAdc60d())
+                .set("adcNormalized", profile.getAdcNormalized())
+                .set("adcTrend", profile.getAdcTrend())
+                .set("trendConfidence", profile.getTrendConfidence())
+                .set("coefficientOfVariation", profile.getCoefficientOfVariation())
+                .set("stdDeviation", profile.getStdDeviation())
+                .set("dataPointsUsed", profile.getDataPointsUsed())
+                .set("calculationDate", profile.getCalculationDate())
+                .set("updatedAt", profile.getUpdatedAt());
+        if (profile.getLastConsumptionDate() != null) {
+            update.set("lastConsumptionDate", profile.getLastConsumptionDate());
+        }
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), ConsumptionProfile.class);
+    }
+
+    @Override
+    public void mergeProfilesFromLogs(Collection<String> locationIds, LocalDateTime calculatedAt) {
+        Date calculatedAtDate = toDate(calculatedAt);
+        Object quantity = new Document("$ifNull", Arrays.asList("$quantityConsumed", 0));
+
+        Document match = new Document("consumptionDate",
+                new Document("$gte", toDate(calculatedAt.minusDays(WINDOW_DAYS[WINDOW_DAYS.length - 1]))));
+        if (locationIds != null) {
+            match.append("locationId", new Document("$in", locationIds));
+        }
+
+        // Conditional sums give every window's total and row count from the same scan
+        Document group = new Document("_id", new Document("productId", "$productId").append("locationId", "$locationId"));
+        Document project = new Document("_id", 0)
+                .append("productId", "$_id.productId")
+                .append("locationId", "$_id.locationId");
+        for (int days : WINDOW_DAYS) {
+            Document inWindow = new Document("$gte", Arrays.asList("$consumptionDate", toDate(calculatedAt.minusDays(days))));
+            group.append("sum" + days, new Document("$sum", new Document("$cond", Arrays.asList(inWindow, quantity, 0))))
+                    .append("count" + days, new Document("$sum", new Document("$cond", Arrays.asList(inWindow, 1, 0))));
+            project.append("adc" + days + "d", new Document("$cond", Arrays.asList(
+                    new Document("$eq", Arrays.asList("$count" + days, 0)),
+                    0.0,
+                    new Document("$divide", Arrays.asList("$sum" + days, "$count" + days)))));
+        }
+        Document inDeviationWindow = new Document("$gte",
+                Arrays.asList("$consumptionDate", toDate(calculatedAt.minusDays(DEVIATION_WINDOW_DAYS))));
+        group.append("stdDeviation", new Document("$stdDevSamp",
+                        new Document("$cond", Arrays.asList(inDeviationWindow, quantity, null))))
+                .append("lastConsumptionDate", new Document("$max", "$consumptionDate"));
+
+        String deviationCount = "$count" + DEVIATION_WINDOW_DAYS;
+        project.append("stdDeviation", new Document("$cond", Arrays.asList(
+                        new Document("$lt", Arrays.asList(deviationCount, 2)),
+                        0.0,
+                        new Document("$ifNull", Arrays.asList("$stdDeviation", 0.0)))))
+                .append("dataPointsUsed", deviationCount)
+                .append("lastConsumptionDate", 1)
+                .append("calculationDate", new Document("$literal", calculatedAtDate))
+                .append("updatedAt", new Document("$literal", calculatedAtDate));
+
+        String deviationAdc = "$adc" + DEVIATION_WINDOW_DAYS + "d";
+        Document coefficientOfVariation = new Document("coefficientOfVariation", new Document("$cond", Arrays.asList(
+                new Document("$or", Arrays.asList(
+                        new Document("$lt", Arrays.asList("$dataPointsUsed", 2)),
+                        new Document("$eq", Arrays.asList(deviationAdc, 0)))),
+                0.0,
+                new Document("$multiply", Arrays.asList(
+                        new Document("$divide", Arrays.asList("$stdDeviation", deviationAdc)), 100)))));
+
+        // Matches on the unique productId_locationId index, so existing ids and trend fields are kept
+        Document merge = new Document("into", mongoTemplate.getCollectionName(ConsumptionProfile.class))
+                .append("on", Arrays.asList("productId", "locationId"))
+                .append("whenMatched", "merge")
+                .append("whenNotMatched", "insert");
+
+        List<Document> pipeline = List.of(
+                new Document("$match", match),
+                new Document("$group", group),
+                new Document("$project", project),
+                new Document("$set", coefficientOfVariation),
+                new Document("$merge", merge));
+
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(DailyConsumptionLog.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+    }
+
+    @Override
+    public long resetProfilesWithoutLogsSince(Collection<String> locationIds, LocalDateTime windowStart,
+                                              LocalDateTime calculatedAt) {
+        Criteria criteria = Criteria.where("lastConsumptionDate").lt(windowStart).and("calculationDate").ne(calculatedAt);
+        if (locationIds != null) {
+            criteria.and("locationId").in(locationIds);
+        }
+
+        Update update = new Update()
+                .set("adc7d", 0.0)
+                .set("adc14d", 0.0)
+                .set("adc30d", 0.0)
+                .set("adc60d", 0.0)
+                .set("coefficientOfVariation", 0.0)
+                .set("stdDeviation", 0.0)
+                .set("dataPointsUsed", 0)
+                .set("calculationDate", calculatedAt)
+                .set("updatedAt", calculatedAt);
+        return mongoTemplate.updateMulti(Query.query(criteria), update, ConsumptionProfile.class).getModifiedCount();
+    }
+
+    @Override
+    public Stream<ConsumptionProfile> streamByCalculationDate(Collection<String> locationIds, LocalDateTime calculatedAt) {
+        Criteria criteria = Criteria.where("calculationDate").is(calculatedAt);
+        if (locationIds != null) {
+            criteria.and("locationId").in(locationIds);
+        }
+        Query query = Query.query(criteria);
+        query.fields().include("productId", "locationId", "adc7d", "adc14d", "adc30d");
+        return mongoTemplate.stream(query, ConsumptionProfile.class);
+    }
+
+    @Override
+    public void bulkUpdateTrendAndNormalization(List<ConsumptionProfile> profiles) {
+        if (profiles.isEmpty()) {
+            return;
+        }
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ConsumptionProfile.class);
+        for (ConsumptionProfile profile : profiles) {
+            Update update = new Update()
+                    .set("adcTrend", profile.getAdcTrend())
+                    .set("trendConfidence", profile.getTrendConfidence())
+                    .set("adcNormalized", profile.getAdcNormalized());
+            bulkOps.updateOne(Query.query(Criteria.where("_id").is(profile.getId())), update);
+        }
+        bulkOps.execute();
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,176 @@
+package com.onified.distribute.repository.impl;
+
+import com.onified.distribute.entity.ConsumptionWindowState;
+import com.onified.distribute.entity.DailyConsumptionLog;
+import com.onified.distribute.repository.ConsumptionWindowStateCustomRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class ConsumptionWindowStateCustomRepositoryImpl implements ConsumptionWindowStateCustomRepository {
+
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean saveIfVersion(ConsumptionWindowState state, Long expectedVersion) {
+        if (expectedVersion == null) {
+            state.setVersion(0L);
+            try {
+                mongoTemplate.insert(state);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        }
+
+        Query query = Query.query(Criteria.where("_id").is(state.getId()).and("version").is(expectedVersion));
+        boolean saved = mongoTemplate.updateFirst(query, stateUpdate(state), ConsumptionWindowState.class)
+                .getMatchedCount() == 1;
+        if (saved) {
+            state.setVersion(expectedVersion + 1);
+        }
+        return saved;
+    }
+
+    @Override
+    public int bulkReplaceIfVersion(Collection<ConsumptionWindowState> states, Map<String, Long> expectedVersions) {
+        if (states.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ConsumptionWindowState.class);
+        int expectedMatches = 0;
+        int inserts = 0;
+        for (ConsumptionWindowState state : states) {
+            Long expectedVersion = expectedVersions.get(state.getId());
+            Update update = stateUpdate(state);
+            if (expectedVersion != null) {
+                bulkOps.updateOne(Query.query(Criteria.where("_id").is(state.getId()).and("version").is(expectedVersion)), update);
+                expectedMatches++;
+            } else {
+                // Matches nothing if a writer created the state meanwhile, so the upsert fails on the duplicate _id
+                update.setOnInsert("productId", state.getProductId())
+                        .setOnInsert("locationId", state.getLocationId());
+                bulkOps.upsert(Query.query(Criteria.where("_id").is(state.getId()).and("version").exists(false)), update);
+                inserts++;
+            }
+        }
+
+        try {
+            BulkWriteResult result = bulkOps.execute();
+            return expectedMatches - result.getMatchedCount() + inserts - result.getUpserts().size();
+        } catch (BulkOperationException e) {
+            BulkWriteResult result = e.getResult();
+            return expectedMatches - result.getMatchedCount() + inserts - result.getUpserts().size();
+        }
+    }
+
+    @Override
+    public Map<String, Long> findVersions(Collection<String> locationIds) {
+        Query query = locationIds != null ? Query.query(Criteria.where("locationId").in(locationIds)) : new Query();
+        query.fields().include("version");
+        Map<String, Long> versions = new HashMap<>();
+        for (ConsumptionWindowState state : mongoTemplate.find(query, ConsumptionWindowState.class)) {
+            versions.put(state.getId(), state.getVersion());
+        }
+        return versions;
+    }
+
+    @Override
+    public long deleteNotRecomputedWithoutLogs(Collection<String> locationIds, LocalDateTime recomputedAt,
+                                               LocalDateTime windowStart) {
+        // States written from here on are left alone: ingest touched them after the log check below began
+        LocalDateTime checkStartedAt = LocalDateTime.now();
+        Query candidateQuery = Query.query(notRecomputedSince(locationIds, recomputedAt));
+        candidateQuery.fields().include("productId", "locationId");
+        List<ConsumptionWindowState> candidates = mongoTemplate.find(candidateQuery, ConsumptionWindowState.class);
+
+        long deleted = 0;
+        for (int from = 0; from < candidates.size(); from += DELETE_BATCH_SIZE) {
+            List<ConsumptionWindowState> batch = candidates.subList(from, Math.min(from + DELETE_BATCH_SIZE, candidates.size()));
+            // A state the recompute did not write may still have logs, e.g. one ingest moved past the expected version
+            Set<String> withLogs = idsWithLogsSince(batch, windowStart);
+            List<String> ids = batch.stream()
+                    .map(ConsumptionWindowState::getId)
+                    .filter(id -> !withLogs.contains(id))
+                    .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                continue;
+            }
+            Query query = Query.query(new Criteria().andOperator(
+                    Criteria.where("_id").in(ids),
+                    Criteria.where("updatedAt").lt(checkStartedAt),
+                    notRecomputedSince(null, recomputedAt)));
+            deleted += mongoTemplate.remove(query, ConsumptionWindowState.class).getDeletedCount();
+        }
+        return deleted;
+    }
+
+    private Criteria notRecomputedSince(Collection<String> locationIds, LocalDateTime recomputedAt) {
+        Criteria criteria = new Criteria().orOperator(
+                Criteria.where("recomputedAt").lt(recomputedAt),
+                Criteria.where("recomputedAt").is(null));
+        if (locationIds != null) {
+            criteria = new Criteria().andOperator(Criteria.where("locationId").in(locationIds), criteria);
+        }
+        return criteria;
+    }
+
+    private Set<String> idsWithLogsSince(List<ConsumptionWindowState> states, LocalDateTime windowStart) {
+        Set<String> productIds = new HashSet<>();
+        Set<String> locationIds = new HashSet<>();
+        for (ConsumptionWindowState state : states) {
+            productIds.add(state.getProductId());
+            locationIds.add(state.getLocationId());
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("productId").in(productIds)
+                        .and("locationId").in(locationIds)
+                        .and("consumptionDate").gte(windowStart)),
+                Aggregation.group("productId", "locationId"));
+
+        Set<String> ids = new HashSet<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, DailyConsumptionLog.class, Document.class)) {
+            Document key = result.get("_id", Document.class);
+            ids.add(ConsumptionWindowState.idOf(key.getString("productId"), key.getString("locationId")));
+        }
+        return ids;
+    }
+
+    private static Update stateUpdate(ConsumptionWindowState state) {
+        return new Update()
+                .set("anchorDay", state.getAnchorDay())
+                .set("dailyTotals", state.getDailyTotals())
+                .set("dailyCounts", state.getDailyCounts())
+                .set("dailySquares", state.getDailySquares())
+                .set("windowSums", state.getWindowSums())
+                .set("windowCounts", state.getWindowCounts())
+                .set("deviationSquares", state.getDeviationSquares())
+                .set("recomputedAt", state.getRecomputedAt())
+                .set("recomputedBy", state.getRecomputedBy())
+                .set("updatedAt", state.getUpdatedAt())
+                .inc("version", 1);
+    }
+}
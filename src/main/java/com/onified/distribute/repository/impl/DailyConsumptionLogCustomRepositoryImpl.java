@@ -0,0 +1,54 @@
+package com.onified.distribute.repository.impl;
+
+import com.onified.distribute.dto.CursorSliceDTO;
+import com.onified.distribute.dto.ProductLocationPairDTO;
+import com.onified.distribute.entity.DailyConsumptionLog;
+import com.onified.distribute.repository.DailyConsumptionLogCustomRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+public class DailyConsumptionLogCustomRepositoryImpl implements DailyConsumptionLogCustomRepository {
+
+    private static final String CURSOR_SORT_FIELD = "consumptionDate";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public CursorSliceDTO<DailyConsumptionLog> findSliceAfter(Sort.Order order, String after, int size) {
+        Sort.Order resolved = CURSOR_SORT_FIELD.equals(order.getProperty()) ? order : Sort.Order.desc(CURSOR_SORT_FIELD);
+        return KeysetPagination.findSlice(mongoTemplate, null, DailyConsumptionLog.class, resolved, after, size);
+    }
+
+    @Override
+    public List<String> findDistinctLocationIds() {
+        return mongoTemplate.findDistinct(new Query(), "locationId", DailyConsumptionLog.class, String.class);
+    }
+
+    @Override
+    public Stream<ProductLocationPairDTO> streamDistinctProductLocationPairs(Collection<String> locationIds) {
+        // The locationId_consumptionDate index serves the $match; only the given locations' pairs are grouped
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("locationId").in(locationIds)),
+                Aggregation.group("productId", "locationId")
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        return mongoTemplate.aggregateStream(aggregation, DailyConsumptionLog.class, Document.class)
+                .map(result -> {
+                    Document key = result.get("_id", Document.class);
+                    return new ProductLocationPairDTO(key.getString("productId"), key.getString("locationId"));
+                });
+    }
+}
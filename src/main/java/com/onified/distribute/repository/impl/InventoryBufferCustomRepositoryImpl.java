@@ -0,0 +1,133 @@
+package com.onified.distribute.repository.impl;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.onified.distribute.dto.CursorSliceDTO;
+import com.onified.distribute.entity.InventoryBuffer;
+import com.onified.distribute.repository.InventoryBufferCustomRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+public class InventoryBufferCustomRepositoryImpl implements InventoryBufferCustomRepository {
+
+    private static final Set<String> CURSOR_SORT_FIELDS = new HashSet<>(Arrays.asList("updatedAt", "createdAt"));
+    private static final Sort.Order DEFAULT_CURSOR_ORDER = Sort.Order.desc("updatedAt");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<String> findDistinctActiveLocationIds() {
+        Query query = Query.query(Criteria.where("is_active").is(true));
+        return mongoTemplate.findDistinct(query, "location_id", InventoryBuffer.class, String.class);
+    }
+
+    @Override
+    public Stream<InventoryBuffer> streamActiveBuffersForStatusUpdate(String locationId) {
+        Query query = Query.query(Criteria.where("location_id").is(locationId).and("is_active").is(true));
+        query.fields().include("buffer_id", "product_id", "location_id", "buffer_units",
+                "yellow_threshold_pct", "red_threshold_pct", "current_inventory", "in_pipeline_qty",
+                "net_available_qty", "buffer_consumed_pct", "current_zone", "consecutive_zone_days");
+        return mongoTemplate.stream(query, InventoryBuffer.class);
+    }
+
+    @Override
+    public Stream<InventoryBuffer> streamAll() {
+        return mongoTemplate.stream(new Query().with(Sort.by(Sort.Direction.ASC, "_id")), InventoryBuffer.class);
+    }
+
+    @Override
+    public List<InventoryBuffer> findActiveBuffersAfterId(String afterId, Collection<String> locationIds, int limit) {
+        Criteria criteria = Criteria.where("is_active").is(true).and("location_id").in(locationIds);
+        if (afterId != null) {
+            criteria = criteria.and("_id").gt(new ObjectId(afterId));
+        }
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        return mongoTemplate.find(query, InventoryBuffer.class);
+    }
+
+    @Override
+    public Map<String, String> bulkUpdateStatusMetrics(List<InventoryBuffer> buffers) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        if (buffers.isEmpty()) {
+            return failures;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryBuffer.class);
+        for (InventoryBuffer buffer : buffers) {
+            Update update = new Update()
+                    .set("current_inventory", buffer.getCurrentInventory())
+                    .set("in_pipeline_qty", buffer.getInPipelineQty())
+                    .set("net_available_qty", buffer.getNetAvailableQty())
+                    .set("buffer_consumed_pct", buffer.getBufferConsumedPct())
+                    .set("current_zone", buffer.getCurrentZone())
+                    .set("consecutive_zone_days", buffer.getConsecutiveZoneDays())
+                    .set("updated_at", buffer.getUpdatedAt());
+            bulkOps.updateOne(Query.query(Criteria.where("_id").is(buffer.getId())), update);
+        }
+
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            // Unordered writes keep going past a failure, so only the reported indexes failed
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(buffers.get(error.getIndex()).getId(), error.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public Map<String, String> bulkIncrementInPipelineQty(Map<String, Integer> qtyByBufferId) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        if (qtyByBufferId.isEmpty()) {
+            return failures;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<String> bufferIds = new ArrayList<>(qtyByBufferId.keySet());
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, InventoryBuffer.class);
+        for (String bufferId : bufferIds) {
+            // $inc rejects a null field, so zero it first; a no-op when the field already holds a number
+            bulkOps.updateOne(Query.query(Criteria.where("_id").is(bufferId).and("in_pipeline_qty").is(null)),
+                    Update.update("in_pipeline_qty", 0));
+            bulkOps.updateOne(Query.query(Criteria.where("_id").is(bufferId)),
+                    new Update().inc("in_pipeline_qty", qtyByBufferId.get(bufferId)).set("updated_at", now));
+        }
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            // An ordered write stops at its first error, so that buffer and every later one were not incremented
+            BulkWriteError error = e.getErrors().get(0);
+            for (int i = error.getIndex() / 2; i < bufferIds.size(); i++) {
+                failures.put(bufferIds.get(i), error.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public CursorSliceDTO<InventoryBuffer> findSliceAfter(Sort.Order order, String after, int size) {
+        Sort.Order resolved = CURSOR_SORT_FIELDS.contains(order.getProperty()) ? order : DEFAULT_CURSOR_ORDER;
+        return KeysetPagination.findSlice(mongoTemplate, null, InventoryBuffer.class, resolved, after, size);
+    }
+}
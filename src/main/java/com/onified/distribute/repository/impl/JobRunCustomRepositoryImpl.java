@@ -0,0 +1,61 @@
+package com.onified.distribute.repository.impl;
+
+import com.onified.distribute.entity.JobRun;
+import com.onified.distribute.repository.JobRunCustomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class JobRunCustomRepositoryImpl implements JobRunCustomRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void recordLocationCheckpoint(String runId, String locationId, long processed, long updated, long errors) {
+        Update update = counters(processed, updated, errors).addToSet("completedLocationIds", locationId);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("runId").is(runId)), update, JobRun.class);
+    }
+
+    @Override
+    public void recordCheckpoint(String runId, String checkpointKey, long processed, long updated, long errors) {
+        Update update = counters(processed, updated, errors).set("checkpointKey", checkpointKey);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("runId").is(runId)), update, JobRun.class);
+    }
+
+    @Override
+    public boolean reopenFailedRun(String runId) {
+        Query query = Query.query(Criteria.where("runId").is(runId).and("stage").is(JobRun.STAGE_FAILED));
+        Update update = new Update()
+                .set("stage", JobRun.STAGE_RUNNING)
+                .inc("resumeCount", 1)
+                .unset("errorMessage");
+        return mongoTemplate.updateFirst(query, update, JobRun.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public JobRun finishRun(String runId, String stage, String errorMessage, LocalDateTime finishedAt, Long durationMs) {
+        Query query = Query.query(Criteria.where("runId").is(runId).and("stage").ne(JobRun.STAGE_COMPLETED));
+        Update update = new Update()
+                .set("stage", stage)
+                .set("errorMessage", errorMessage)
+                .set("finishedAt", finishedAt)
+                .set("durationMs", durationMs);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), JobRun.class);
+    }
+
+    private Update counters(long processed, long updated, long errors) {
+        return new Update()
+                .inc("processedCount", processed)
+                .inc("updatedCount", updated)
+                .inc("errorCount", errors)
+                .set("lastCheckpointAt", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,169 @@
+package com.onified.distribute.repository.impl;
+
+import com.onified.distribute.dto.CursorSliceDTO;
+import com.onified.distribute.exception.BadRequestException;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset pagination over a single sort field with an _id tiebreaker. The after token is an opaque
+ * base64 encoding of the sort field, direction, last _id and typed last sort value, so every page is
+ * an index range seek rather than a skip over the pages before it.
+ */
+final class KeysetPagination {
+
+    private static final String SEPARATOR = "\n";
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * Rows matching the filter (may be null) that sort after the token, plus one extra row to detect a next page
+     */
+    static <T> CursorSliceDTO<T> findSlice(MongoTemplate mongoTemplate, Criteria filter, Class<T> type,
+                                           Sort.Order order, String after, int size) {
+        if (size < 1) {
+            throw new BadRequestException("size must be at least 1");
+        }
+        String sortField = order.getProperty();
+        Sort.Direction direction = order.getDirection();
+
+        List<Criteria> predicates = new ArrayList<>();
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (StringUtils.hasText(after)) {
+            Position position = decode(after, sortField, direction);
+            predicates.add(seekAfter(sortField, direction, position));
+        }
+
+        Query query = predicates.isEmpty()
+                ? new Query()
+                : Query.query(new Criteria().andOperator(predicates.toArray(new Criteria[0])));
+        query.with(Sort.by(direction, sortField).and(Sort.by(direction, "_id"))).limit(size + 1);
+
+        List<T> rows = mongoTemplate.find(query, type);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = new ArrayList<>(rows.subList(0, size));
+        }
+        String nextCursor = hasNext ? encode(rows.get(rows.size() - 1), sortField, direction) : null;
+        return new CursorSliceDTO<>(rows, rows.size(), hasNext, nextCursor);
+    }
+
+    /**
+     * Rows strictly after the position. Mongo orders null and missing values below every other type,
+     * and range operators never match across types, so null keys need their own branches.
+     */
+    private static Criteria seekAfter(String sortField, Sort.Direction direction, Position position) {
+        boolean ascending = direction.isAscending();
+        Criteria sameKeyLaterId = ascending
+                ? Criteria.where("_id").gt(position.id)
+                : Criteria.where("_id").lt(position.id);
+
+        if (position.value == null) {
+            Criteria nullKeyLaterId = new Criteria().andOperator(Criteria.where(sortField).is(null), sameKeyLaterId);
+            return ascending
+                    ? new Criteria().orOperator(nullKeyLaterId, Criteria.where(sortField).ne(null))
+                    : nullKeyLaterId;
+        }
+
+        Criteria laterKey = ascending
+                ? Criteria.where(sortField).gt(position.value)
+                : Criteria.where(sortField).lt(position.value);
+        Criteria sameKey = new Criteria().andOperator(Criteria.where(sortField).is(position.value), sameKeyLaterId);
+        return ascending
+                ? new Criteria().orOperator(laterKey, sameKey)
+                : new Criteria().orOperator(laterKey, sameKey, Criteria.where(sortField).is(null));
+    }
+
+    private static String encode(Object row, String sortField, Sort.Direction direction) {
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(row);
+        Object value = wrapper.getPropertyValue(sortField);
+        Object id = wrapper.getPropertyValue("id");
+        String token = String.join(SEPARATOR, sortField, direction.name(), String.valueOf(id), encodeValue(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return "n" + SEPARATOR;
+        }
+        if (value instanceof String) {
+            return "s" + SEPARATOR + value;
+        }
+        if (value instanceof Integer) {
+            return "i" + SEPARATOR + value;
+        }
+        if (value instanceof Long) {
+            return "l" + SEPARATOR + value;
+        }
+        if (value instanceof Double) {
+            return "d" + SEPARATOR + value;
+        }
+        if (value instanceof LocalDateTime) {
+            return "t" + SEPARATOR + value;
+        }
+        if (value instanceof LocalDate) {
+            return "D" + SEPARATOR + value;
+        }
+        throw new IllegalArgumentException("Unsupported cursor sort value type: " + value.getClass().getName());
+    }
+
+    private static Position decode(String token, String sortField, Sort.Direction direction) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 5);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (parts.length != 5) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (!parts[0].equals(sortField) || !parts[1].equals(direction.name())) {
+            throw new BadRequestException("Cursor was issued for a different sort, restart without the after token");
+        }
+
+        Object id = ObjectId.isValid(parts[2]) ? new ObjectId(parts[2]) : parts[2];
+        return new Position(decodeValue(parts[3], parts[4]), id);
+    }
+
+    private static Object decodeValue(String type, String raw) {
+        try {
+            return switch (type) {
+                case "n" -> null;
+                case "s" -> raw;
+                case "i" -> Integer.valueOf(raw);
+                case "l" -> Long.valueOf(raw);
+                case "d" -> Double.valueOf(raw);
+                case "t" -> LocalDateTime.parse(raw);
+                case "D" -> LocalDate.parse(raw);
+                default -> throw new IllegalArgumentException("Unknown cursor value type: " + type);
+            };
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static final class Position {
+        private final Object value;
+        private final Object id;
+
+        private Position(Object value, Object id) {
+            this.value = value;
+            this.id = id;
+        }
+    }
+}
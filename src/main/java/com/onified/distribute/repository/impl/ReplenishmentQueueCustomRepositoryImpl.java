@@ -0,0 +1,138 @@
+package com.onified.distribute.repository.impl;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.onified.distribute.entity.ReplenishmentQueue;
+import com.onified.distribute.repository.ReplenishmentQueueCustomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class ReplenishmentQueueCustomRepositoryImpl implements ReplenishmentQueueCustomRepository {
+
+    private static final List<String> PENDING_STATUSES = Arrays.asList("PENDING", "pending");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<String, String> bulkUpsertDailyItems(List<ReplenishmentQueue> items) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        if (items.isEmpty()) {
+            return failures;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReplenishmentQueue.class);
+        for (ReplenishmentQueue item : items) {
+            Query query = Query.query(Criteria.where("productId").is(item.getProductId())
+                    .and("locationId").is(item.getLocationId())
+                    .and("queueDay").is(item.getQueueDay())
+                    .and("status").in(PENDING_STATUSES));
+            Update update = new Update()
+                    .set("inHand", item.getInHand())
+                    .set("inPipelineQty", item.getInPipelineQty())
+                    .set("netAvailableQty", item.getNetAvailableQty())
+                    .set("bufferUnits", item.getBufferUnits())
+                    .set("bufferGap", item.getBufferGap())
+                    .set("bufferZone", item.getBufferZone())
+                    .set("daysOfSupply", item.getDaysOfSupply())
+                    .set("recommendedQty", item.getRecommendedQty())
+                    .set("recommendedAction", item.getRecommendedAction())
+                    .set("priorityScore", item.getPriorityScore())
+                    .set("adcUsed", item.getAdcUsed())
+                    .set("reasonCodes", item.getReasonCodes())
+                    .set("queueDate", item.getQueueDate())
+                    .set("isActive", true)
+                    .setOnInsert("queueId", item.getQueueId())
+                    .setOnInsert("status", item.getStatus());
+            bulkOps.upsert(query, update);
+        }
+
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                // A processed or canceled row for the day fails the status filter and the upsert then hits the unique key
+                if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                    continue;
+                }
+                ReplenishmentQueue item = items.get(error.getIndex());
+                failures.put(item.getProductId() + "|" + item.getLocationId(), error.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public long deactivateItemsQueuedBefore(Collection<String> locationIds, LocalDateTime cutoff) {
+        Query query = Query.query(Criteria.where("locationId").in(locationIds)
+                .and("isActive").is(true)
+                .and("queueDate").lt(cutoff));
+        return mongoTemplate.updateMulti(query, Update.update("isActive", false), ReplenishmentQueue.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public List<ReplenishmentQueue> claimPendingItems(List<ReplenishmentQueue> items) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReplenishmentQueue.class);
+        for (ReplenishmentQueue item : items) {
+            Query query = Query.query(Criteria.where("_id").is(item.getId()).and("status").in(PENDING_STATUSES));
+            Update update = new Update()
+                    .set("status", item.getStatus())
+                    .set("actionTaken", item.getActionTaken())
+                    .set("orderId", item.getOrderId())
+                    .set("processedAt", item.getProcessedAt())
+                    .set("processedBy", item.getProcessedBy());
+            bulkOps.updateOne(query, update);
+        }
+        bulkOps.execute();
+
+        // The bulk result only carries counts, so read back which items now hold the order id this call assigned
+        Map<String, String> orderIdById = items.stream()
+                .collect(Collectors.toMap(ReplenishmentQueue::getId, ReplenishmentQueue::getOrderId));
+        Query claimed = Query.query(Criteria.where("_id").in(orderIdById.keySet()));
+        return mongoTemplate.find(claimed, ReplenishmentQueue.class).stream()
+                .filter(item -> Objects.equals(item.getOrderId(), orderIdById.get(item.getId())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long releaseClaimedItems(List<ReplenishmentQueue> items) {
+        if (items.isEmpty()) {
+            return 0L;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReplenishmentQueue.class);
+        for (ReplenishmentQueue item : items) {
+            Query query = Query.query(Criteria.where("_id").is(item.getId()).and("orderId").is(item.getOrderId()));
+            Update update = new Update()
+                    .set("status", "pending")
+                    .unset("actionTaken")
+                    .unset("orderId")
+                    .unset("processedAt")
+                    .unset("processedBy");
+            bulkOps.updateOne(query, update);
+        }
+        return bulkOps.execute().getModifiedCount();
+    }
+}
@@ -0,0 +1,239 @@
+package com.onified.distribute.repository.impl;
+
+import com.onified.distribute.dto.CursorSliceDTO;
+import com.onified.distribute.dto.ReplenishmentQueueFilterDTO;
+import com.onified.distribute.dto.ReplenishmentQueueSummaryDTO;
+import com.onified.distribute.entity.ReplenishmentQueueView;
+import com.onified.distribute.repository.ReplenishmentQueueViewCustomRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+public class ReplenishmentQueueViewCustomRepositoryImpl implements ReplenishmentQueueViewCustomRepository {
+
+    /**
+     * Sort fields backed by an index on the view; anything else falls back to the default priority order
+     */
+    private static final Set<String> INDEXED_SORT_FIELDS = new HashSet<>(Arrays.asList(
+            "priorityScore", "queueDate", "bufferGap", "daysOfSupply", "productId", "locationId"));
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "priorityScore");
+
+    /**
+     * Sort fields with a compound (field, _id) index that a keyset seek can walk
+     */
+    private static final Set<String> CURSOR_SORT_FIELDS = new HashSet<>(Arrays.asList("priorityScore", "queueDate"));
+    private static final Sort.Order DEFAULT_CURSOR_ORDER = Sort.Order.desc("priorityScore");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Page<ReplenishmentQueueView> findByFilters(ReplenishmentQueueFilterDTO filters, Pageable pageable) {
+        Criteria criteria = filterCriteria(filters);
+        Query query = criteria == null ? new Query() : Query.query(criteria);
+        long total = mongoTemplate.count(query, ReplenishmentQueueView.class);
+
+        query.with(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), resolveSort(pageable.getSort())));
+        List<ReplenishmentQueueView> views = mongoTemplate.find(query, ReplenishmentQueueView.class);
+        return new PageImpl<>(views, pageable, total);
+    }
+
+    @Override
+    public CursorSliceDTO<ReplenishmentQueueView> findSliceByFilters(ReplenishmentQueueFilterDTO filters,
+                                                                      Sort.Order order, String after, int size) {
+        Sort.Order resolved = CURSOR_SORT_FIELDS.contains(order.getProperty()) ? order : DEFAULT_CURSOR_ORDER;
+        return KeysetPagination.findSlice(mongoTemplate, filterCriteria(filters), ReplenishmentQueueView.class,
+                resolved, after, size);
+    }
+
+    @Override
+    public Stream<ReplenishmentQueueView> streamByFilters(ReplenishmentQueueFilterDTO filters) {
+        Criteria criteria = filterCriteria(filters);
+        Query query = criteria == null ? new Query() : Query.query(criteria);
+        query.with(DEFAULT_SORT.and(Sort.by(Sort.Direction.DESC, "_id")));
+        return mongoTemplate.stream(query, ReplenishmentQueueView.class);
+    }
+
+    @Override
+    public ReplenishmentQueueSummaryDTO summarize() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.facet(Aggregation.group("bufferZoneNormalized").count().as("count")).as("bufferZones")
+                        .and(Aggregation.group("statusNormalized").count().as("count")).as("statuses")
+                        .and(Aggregation.group("recommendedActionNormalized").count().as("count")).as("recommendedActions")
+                        .and(Aggregation.group()
+                                .count().as("totalItems")
+                                .sum("bufferGap").as("totalBufferGap")
+                                .min("priorityScore").as("minPriorityScore")
+                                .max("priorityScore").as("maxPriorityScore")).as("totals"));
+
+        Document result = mongoTemplate.aggregate(aggregation, ReplenishmentQueueView.class, Document.class)
+                .getUniqueMappedResult();
+
+        ReplenishmentQueueSummaryDTO summary = new ReplenishmentQueueSummaryDTO();
+        if (result == null) {
+            return summary;
+        }
+        summary.setBufferZoneCounts(toCounts(result.getList("bufferZones", Document.class)));
+        summary.setStatusCounts(toCounts(result.getList("statuses", Document.class)));
+        summary.setRecommendedActionCounts(toCounts(result.getList("recommendedActions", Document.class)));
+
+        List<Document> totals = result.getList("totals", Document.class);
+        if (totals != null && !totals.isEmpty()) {
+            Document total = totals.get(0);
+            summary.setTotalItems(asLong(total.get("totalItems")));
+            summary.setTotalBufferGap(asLong(total.get("totalBufferGap")));
+            summary.setMinPriorityScore(asDouble(total.get("minPriorityScore")));
+            summary.setMaxPriorityScore(asDouble(total.get("maxPriorityScore")));
+        }
+        return summary;
+    }
+
+    @Override
+    public void bulkUpsert(List<ReplenishmentQueueView> views) {
+        if (views.isEmpty()) {
+            return;
+        }
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReplenishmentQueueView.class);
+        for (ReplenishmentQueueView view : views) {
+            bulkOps.replaceOne(Query.query(Criteria.where("_id").is(view.getId())), view,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulkOps.execute();
+    }
+
+    @Override
+    public void updateProductName(String productId, String productName) {
+        mongoTemplate.updateMulti(Query.query(Criteria.where("productId").is(productId)),
+                Update.update("productName", productName), ReplenishmentQueueView.class);
+    }
+
+    @Override
+    public void updateLocationName(String locationId, String locationName) {
+        mongoTemplate.updateMulti(Query.query(Criteria.where("locationId").is(locationId)),
+                Update.update("locationName", locationName), ReplenishmentQueueView.class);
+    }
+
+    @Override
+    public long deleteQueuedBefore(Collection<String> locationIds, LocalDateTime cutoff) {
+        Query query = Query.query(Criteria.where("locationId").in(locationIds).and("queueDate").lt(cutoff));
+        return mongoTemplate.remove(query, ReplenishmentQueueView.class).getDeletedCount();
+    }
+
+    @Override
+    public boolean hasRowsMissingNormalizedFields() {
+        Criteria criteria = new Criteria().orOperator(
+                missingNormalized("bufferZone"), missingNormalized("status"), missingNormalized("recommendedAction"));
+        return mongoTemplate.exists(Query.query(criteria), ReplenishmentQueueView.class);
+    }
+
+    private Criteria missingNormalized(String field) {
+        return Criteria.where(field).ne(null).and(field + "Normalized").exists(false);
+    }
+
+    /**
+     * AND of the predicates for the filters that are set, or null when none are
+     */
+    private Criteria filterCriteria(ReplenishmentQueueFilterDTO filters) {
+        List<Criteria> predicates = new ArrayList<>();
+        addPrefix(predicates, "productId", filters.getProductId());
+        addPrefix(predicates, "locationId", filters.getLocationId());
+        addNormalized(predicates, "bufferZoneNormalized", filters.getBufferZone());
+        addNormalized(predicates, "statusNormalized", filters.getStatus());
+        addNormalized(predicates, "recommendedActionNormalized", filters.getRecommendedAction());
+        addRange(predicates, "bufferGap", filters.getMinBufferGap(), filters.getMaxBufferGap());
+        addRange(predicates, "daysOfSupply", filters.getMinDaysOfSupply(), filters.getMaxDaysOfSupply());
+        addRange(predicates, "priorityScore", filters.getMinPriorityScore(), filters.getMaxPriorityScore());
+        return predicates.isEmpty() ? null : new Criteria().andOperator(predicates.toArray(new Criteria[0]));
+    }
+
+    private Map<String, Long> toCounts(List<Document> groups) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (groups == null) {
+            return counts;
+        }
+        for (Document group : groups) {
+            Object key = group.get("_id");
+            counts.put(key != null ? key.toString() : "UNKNOWN", asLong(group.get("count")));
+        }
+        return counts;
+    }
+
+    private long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private Double asDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : null;
+    }
+
+    private void addPrefix(List<Criteria> predicates, String field, String value) {
+        if (StringUtils.hasText(value)) {
+            // Anchored and case-sensitive so the index bounds the scan to the prefix range
+            predicates.add(Criteria.where(field).regex("^" + escapeRegex(value.trim())));
+        }
+    }
+
+    private void addNormalized(List<Criteria> predicates, String field, String value) {
+        if (StringUtils.hasText(value)) {
+            predicates.add(Criteria.where(field).is(value.trim().toUpperCase(Locale.ROOT)));
+        }
+    }
+
+    private void addRange(List<Criteria> predicates, String field, Number min, Number max) {
+        if (min == null && max == null) {
+            return;
+        }
+        Criteria criteria = Criteria.where(field);
+        if (min != null) {
+            criteria = criteria.gte(min);
+        }
+        if (max != null) {
+            criteria = criteria.lte(max);
+        }
+        predicates.add(criteria);
+    }
+
+    /**
+     * Keep the index-backed orders of the requested sort and break ties on _id so pages are stable
+     */
+    private Sort resolveSort(Sort requested) {
+        List<Sort.Order> orders = requested.stream()
+                .filter(order -> INDEXED_SORT_FIELDS.contains(order.getProperty()))
+                .collect(Collectors.toList());
+        Sort sort = orders.isEmpty() ? DEFAULT_SORT : Sort.by(orders);
+        Sort.Direction tieBreakDirection = sort.stream().reduce((first, second) -> second)
+                .map(Sort.Order::getDirection)
+                .orElse(Sort.Direction.DESC);
+        return sort.and(Sort.by(tieBreakDirection, "_id"));
+    }
+
+    private String escapeRegex(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
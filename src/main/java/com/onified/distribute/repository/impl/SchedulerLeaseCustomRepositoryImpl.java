@@ -0,0 +1,73 @@
+package com.onified.distribute.repository.impl;
+
+import com.onified.distribute.entity.SchedulerLease;
+import com.onified.distribute.repository.SchedulerLeaseCustomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+@RequiredArgsConstructor
+public class SchedulerLeaseCustomRepositoryImpl implements SchedulerLeaseCustomRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean tryClaim(String leaseId, String runKey, String jobName, int partition, String owner, LocalDateTime expiresAt) {
+        LocalDateTime now = LocalDateTime.now();
+        // Only an expired lease can be taken, even by its own holder: the parallel workers of one replica
+        // share its member id, so an owner match would let sibling threads run the same partition
+        Query query = Query.query(Criteria.where("_id").is(leaseId).and("completed").ne(true)
+                .and("expiresAt").lt(now));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expiresAt", expiresAt)
+                .set("claimedAt", now)
+                .setOnInsert("runKey", runKey)
+                .setOnInsert("jobName", jobName)
+                .setOnInsert("partition", partition)
+                .setOnInsert("completed", false);
+
+        try {
+            // A held or completed lease fails the filter, and the upsert then collides on _id
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), SchedulerLease.class) != null;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void renewLeases(Collection<String> leaseIds, String owner, LocalDateTime expiresAt) {
+        Query query = Query.query(Criteria.where("_id").in(leaseIds).and("owner").is(owner).and("completed").is(false));
+        mongoTemplate.updateMulti(query, Update.update("expiresAt", expiresAt), SchedulerLease.class);
+    }
+
+    @Override
+    public void releaseLease(String leaseId, String owner) {
+        mongoTemplate.updateFirst(ownedLease(leaseId, owner), Update.update("expiresAt", LocalDateTime.now()), SchedulerLease.class);
+    }
+
+    @Override
+    public void completeLease(String leaseId, String owner) {
+        Update update = new Update().set("completed", true).set("completedAt", LocalDateTime.now());
+        mongoTemplate.updateFirst(ownedLease(leaseId, owner), update, SchedulerLease.class);
+    }
+
+    @Override
+    public void recordCheckpoint(String leaseId, String owner, String checkpointKey) {
+        mongoTemplate.updateFirst(ownedLease(leaseId, owner), Update.update("checkpointKey", checkpointKey), SchedulerLease.class);
+    }
+
+    private Query ownedLease(String leaseId, String owner) {
+        return Query.query(Criteria.where("_id").is(leaseId).and("owner").is(owner));
+    }
+}
@@ -53,4 +53,15 @@ public class SeasonalityAdjustmentCustomRepositoryImpl implements SeasonalityAdj
 
         return mongoTemplate.find(query, SeasonalityAdjustment.class);
     }
+
+    @Override
+    public List<SeasonalityAdjustment> findActivePairFactors() {
+        Query query = Query.query(Criteria.where("isActive").is(true)
+                .and("productId").ne(null)
+                .and("locationId").ne(null)
+                .and("month").gte(1).lte(12)
+                .and("seasonalityFactor").ne(null));
+        query.fields().include("productId", "locationId", "month", "year", "seasonalityFactor");
+        return mongoTemplate.find(query, SeasonalityAdjustment.class);
+    }
 }
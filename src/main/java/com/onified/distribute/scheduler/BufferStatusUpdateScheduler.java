@@ -1,23 +1,44 @@
 package com.onified.distribute.scheduler;
 
+import com.mongodb.ConnectionString;
+import com.onified.distribute.config.BufferStatusUpdateConfig;
+import com.onified.distribute.dto.ProductQuantityTotalDTO;
 import com.onified.distribute.entity.InventoryBuffer;
-import com.onified.distribute.entity.InventoryOrderPipeline;
+import com.onified.distribute.entity.JobRun;
 import com.onified.distribute.repository.DailyConsumptionLogRepository;
 import com.onified.distribute.repository.InventoryBufferRepository;
 import com.onified.distribute.repository.InventoryOrderPipelineRepository;
+import com.onified.distribute.service.consumption.ConsumptionSeriesStore;
+import com.onified.distribute.service.job.JobRunService;
+import com.onified.distribute.service.job.PartitionLeaseService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
@@ -27,42 +48,174 @@ public class BufferStatusUpdateScheduler {
     private final InventoryBufferRepository inventoryBufferRepository;
     private final InventoryOrderPipelineRepository inventoryOrderPipelineRepository;
     private final DailyConsumptionLogRepository dailyConsumptionLogRepository;
+    private final BufferStatusUpdateConfig bufferStatusUpdateConfig;
+    private final JobRunService jobRunService;
+    private final PartitionLeaseService partitionLeaseService;
+    private final ConsumptionSeriesStore consumptionSeriesStore;
+    private final TaskScheduler taskScheduler;
+
+    private static final int DEFAULT_MONGO_POOL_SIZE = 100;
+    private static final List<String> PIPELINE_STATUSES = Arrays.asList("CONFIRMED", "SHIPPED", "IN_TRANSIT", "PROCESSED");
+
+    @Value("${spring.data.mongodb.uri}")
+    private String mongoUri;
 
     // Run every hour during business hours (9 AM to 6 PM)
-    @Scheduled(cron = "0 10 19 * * MON-FRI")
+    @Scheduled(cron = JobRun.BUFFER_STATUS_UPDATE_CRON)
     @Transactional
     public void updateBufferStatusForAllLocations() {
         log.info("Starting scheduled buffer status update for all locations");
+        updateBufferStatus(() -> jobRunService.startOrResume(JobRun.BUFFER_STATUS_UPDATE, JobRun.BUFFER_STATUS_UPDATE_CRON));
+    }
+
+    /**
+     * Finish the latest trigger's run when the previous instance stopped before completing it, instead of
+     * leaving its remaining locations until the next trigger starts over
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        taskScheduler.schedule(() -> {
+            try {
+                jobRunService.resumeInterrupted(JobRun.BUFFER_STATUS_UPDATE, JobRun.BUFFER_STATUS_UPDATE_CRON)
+                        .ifPresent(run -> {
+                            log.info("Resuming interrupted buffer status update run {}", run.getRunId());
+                            updateBufferStatus(() -> run);
+                        });
+            } catch (Exception e) {
+                log.error("Error resuming buffer status update: {}", e.getMessage(), e);
+            }
+        }, Instant.now());
+    }
+
+    private void updateBufferStatus(Supplier<JobRun> runSupplier) {
+        long runStart = System.currentTimeMillis();
+        JobRun run = null;
         try {
+            run = runSupplier.get();
+            String runId = run.getRunId();
+
             Set<String> locationIds = getAllActiveLocationIds();
             log.info("Found {} unique locations with active buffers", locationIds.size());
 
-            int totalProcessed = 0;
-            int totalUpdated = 0;
-            int totalErrors = 0;
-
-            for (String locationId : locationIds) {
-                try {
-                    BufferUpdateResult result = updateBufferStatusForLocation(locationId);
-                    totalProcessed += result.getProcessedCount();
-                    totalUpdated += result.getUpdatedCount();
-                    totalErrors += result.getErrorCount();
-
-                    log.info("Location {}: Processed={}, Updated={}, Errors={}",
-                            locationId, result.getProcessedCount(), result.getUpdatedCount(), result.getErrorCount());
-                } catch (Exception e) {
-                    log.error("Failed to update buffer status for location: {}, error: {}", locationId, e.getMessage(), e);
-                    totalErrors++;
+            // Other replicas may have ingested yesterday's logs since the last refresh of the in-memory series
+            consumptionSeriesStore.refresh();
+
+            if (!run.getCompletedLocationIds().isEmpty()) {
+                locationIds.removeAll(run.getCompletedLocationIds());
+                log.info("Run {} resumed - skipping {} locations already completed, {} remaining",
+                        runId, run.getCompletedLocationIds().size(), locationIds.size());
+            }
+
+            // Replicas share the run and claim disjoint location partitions of it
+            Map<Integer, List<String>> locationsByPartition = locationIds.stream()
+                    .collect(Collectors.groupingBy(partitionLeaseService::partitionOf));
+
+            BufferUpdateResult totals = new BufferUpdateResult();
+            Map<String, Long> locationTimings = new ConcurrentHashMap<>();
+            IntConsumer updatePartition = partition -> {
+                for (String locationId : locationsByPartition.getOrDefault(partition, Collections.emptyList())) {
+                    updateLocationAndRecord(runId, locationId, totals, locationTimings);
                 }
+            };
+
+            boolean runComplete;
+            if (Boolean.TRUE.equals(bufferStatusUpdateConfig.getParallelEnabled()) && locationIds.size() > 1) {
+                runComplete = updatePartitionsInParallel(runId, locationIds.size(), updatePartition);
+            } else {
+                runComplete = partitionLeaseService.processPartitions(JobRun.BUFFER_STATUS_UPDATE, runId, updatePartition);
             }
 
             log.info("Completed scheduled buffer status update - Total Processed: {}, Updated: {}, Errors: {}",
-                    totalProcessed, totalUpdated, totalErrors);
+                    totals.getProcessedCount(), totals.getUpdatedCount(), totals.getErrorCount());
+            logRunTimings(System.currentTimeMillis() - runStart, locationTimings);
+
+            if (runComplete) {
+                jobRunService.completeRun(runId);
+            } else {
+                log.warn("Run {} still has unfinished partitions; it stays open for the replicas holding them or a resume on restart", runId);
+            }
         } catch (Exception e) {
             log.error("Error in scheduled buffer status update: {}", e.getMessage(), e);
+            if (run != null) {
+                jobRunService.failRun(run.getRunId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Run one partition-claiming worker per thread on a bounded pool and wait for all of them to finish.
+     * Returns true when every partition of the run is complete.
+     */
+    private boolean updatePartitionsInParallel(String runId, int locationCount, IntConsumer updatePartition)
+            throws InterruptedException {
+        int threads = Math.min(resolveParallelism(locationCount), partitionLeaseService.getPartitionCount());
+        log.info("Running buffer status update for {} locations on {} threads", locationCount, threads);
+
+        AtomicBoolean runComplete = new AtomicBoolean(false);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("buffer-status-"));
+        try {
+            for (int i = 0; i < threads; i++) {
+                executor.submit(() -> {
+                    if (partitionLeaseService.processPartitions(JobRun.BUFFER_STATUS_UPDATE, runId, updatePartition)) {
+                        runComplete.set(true);
+                    }
+                });
+            }
+            executor.shutdown();
+
+            if (!executor.awaitTermination(bufferStatusUpdateConfig.getRunTimeoutMinutes(), TimeUnit.MINUTES)) {
+                log.error("Buffer status update did not finish within {} minutes", bufferStatusUpdateConfig.getRunTimeoutMinutes());
+                return false;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return runComplete.get();
+    }
+
+    private void updateLocationAndRecord(String runId, String locationId, BufferUpdateResult totals,
+                                         Map<String, Long> locationTimings) {
+        long start = System.currentTimeMillis();
+        try {
+            BufferUpdateResult result = updateBufferStatusForLocation(locationId);
+            totals.merge(result);
+            jobRunService.recordLocationCheckpoint(runId, locationId,
+                    result.getProcessedCount(), result.getUpdatedCount(), result.getErrorCount());
+
+            log.info("Location {}: Processed={}, Updated={}, Errors={}",
+                    locationId, result.getProcessedCount(), result.getUpdatedCount(), result.getErrorCount());
+        } catch (Exception e) {
+            log.error("Failed to update buffer status for location: {}, error: {}", locationId, e.getMessage(), e);
+            totals.incrementError();
+        } finally {
+            locationTimings.put(locationId, System.currentTimeMillis() - start);
         }
     }
 
+    /**
+     * Thread count is capped by the Mongo connection pool, keeping some connections free for API traffic
+     */
+    private int resolveParallelism(int locationCount) {
+        Integer configuredPoolSize = new ConnectionString(mongoUri).getMaxConnectionPoolSize();
+        int poolSize = configuredPoolSize != null ? configuredPoolSize : DEFAULT_MONGO_POOL_SIZE;
+        int availableConnections = Math.max(1, poolSize - bufferStatusUpdateConfig.getReservedConnections());
+
+        return Math.max(1, Math.min(locationCount,
+                Math.min(bufferStatusUpdateConfig.getMaxThreads(), availableConnections)));
+    }
+
+    private void logRunTimings(long wallClockMs, Map<String, Long> locationTimings) {
+        long totalLocationMs = locationTimings.values().stream().mapToLong(Long::longValue).sum();
+        log.info("Buffer status update timings - Wall clock: {} ms, Sum of location time: {} ms, Locations: {}, Speedup: {}x",
+                wallClockMs, totalLocationMs, locationTimings.size(),
+                wallClockMs > 0 ? String.format("%.2f", (double) totalLocationMs / wallClockMs) : "n/a");
+
+        locationTimings.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(bufferStatusUpdateConfig.getSlowestLocationsToReport())
+                .forEach(entry -> log.info("Location {} took {} ms", entry.getKey(), entry.getValue()));
+    }
+
     // Run every 4 hours to check for critical buffers
     @Scheduled(fixedRate = 14400000) // 4 hours in milliseconds
     @Transactional(readOnly = true)
@@ -100,36 +253,48 @@ public class BufferStatusUpdateScheduler {
         BufferUpdateResult result = new BufferUpdateResult();
 
         try {
-            Page<InventoryBuffer> buffersPage = inventoryBufferRepository
-                    .findActiveBuffersByLocationId(locationId, PageRequest.of(0, 1000));
-            List<InventoryBuffer> buffers = buffersPage.getContent();
-
-            log.debug("Found {} active buffers for location: {}", buffers.size(), locationId);
-
-            if (buffers.isEmpty()) {
-                log.info("No active buffers found for location: {}", locationId);
-                return result;
-            }
-
             // Get pipeline quantities for all products at this location
             Map<String, Integer> pipelineQuantities = calculatePipelineQuantities(locationId);
 
-            // Process each buffer
-            for (InventoryBuffer buffer : buffers) {
-                try {
-                    boolean updated = updateBufferMetrics(buffer, pipelineQuantities);
-                    result.incrementProcessed();
-                    if (updated) {
-                        result.incrementUpdated();
+            // Get yesterday's consumption for all products at this location in one aggregation
+            Map<String, Integer> yesterdayConsumption = calculateYesterdayConsumption(locationId);
+
+            // Stream each buffer off the cursor, writing the recalculated metrics in unordered bulk batches
+            int batchSize = bufferStatusUpdateConfig.getWriteBatchSize();
+            List<InventoryBuffer> pendingWrites = new ArrayList<>(batchSize);
+            Set<String> changedBufferIds = new HashSet<>();
+
+            try (Stream<InventoryBuffer> buffers = inventoryBufferRepository.streamActiveBuffersForStatusUpdate(locationId)) {
+                Iterator<InventoryBuffer> iterator = buffers.iterator();
+                while (iterator.hasNext()) {
+                    InventoryBuffer buffer = iterator.next();
+                    try {
+                        if (updateBufferMetrics(buffer, pipelineQuantities, yesterdayConsumption, true)) {
+                            changedBufferIds.add(buffer.getId());
+                        }
+                        pendingWrites.add(buffer);
+                    } catch (Exception e) {
+                        log.error("Error updating buffer {}: {}", buffer.getBufferId(), e.getMessage(), e);
+                        result.recordError(buffer.getBufferId(), e.getMessage());
+                    }
+
+                    if (pendingWrites.size() >= batchSize) {
+                        flushBufferWrites(pendingWrites, changedBufferIds, result);
                     }
-                } catch (Exception e) {
-                    log.error("Error updating buffer {}: {}", buffer.getBufferId(), e.getMessage(), e);
-                    result.incrementError();
                 }
             }
+            flushBufferWrites(pendingWrites, changedBufferIds, result);
+
+            if (result.getProcessedCount() == 0 && result.getErrorCount() == 0) {
+                log.info("No active buffers found for location: {}", locationId);
+                return result;
+            }
 
             log.info("Completed buffer status update for location: {} - Processed: {}, Updated: {}, Errors: {}",
                     locationId, result.getProcessedCount(), result.getUpdatedCount(), result.getErrorCount());
+            if (!result.getFailedBuffers().isEmpty()) {
+                log.warn("Failed buffers for location {}: {}", locationId, result.getFailedBuffers());
+            }
         } catch (Exception e) {
             log.error("Error updating buffer status for location {}: {}", locationId, e.getMessage(), e);
             result.incrementError();
@@ -138,38 +303,131 @@ public class BufferStatusUpdateScheduler {
         return result;
     }
 
-    private Map<String, Integer> calculatePipelineQuantities(String locationId) {
-        log.debug("Starting pipeline calculation for location: {}", locationId);
-        List<String> pipelineStatuses = Arrays.asList("CONFIRMED", "SHIPPED", "IN_TRANSIT","PROCESSED");
-        Map<String, Integer> pipelineQuantities = new HashMap<>();
+    /**
+     * Recalculate a single buffer after its consumption or pipeline inputs changed.
+     * Consecutive zone days are only reset on a zone change here; the nightly run counts the days.
+     */
+    public boolean updateBufferStatusForPair(String productId, String locationId) {
+        Optional<InventoryBuffer> bufferOpt = inventoryBufferRepository.findByProductIdAndLocationId(productId, locationId);
+        if (!bufferOpt.isPresent() || !Boolean.TRUE.equals(bufferOpt.get().getIsActive())) {
+            log.debug("No active buffer for product: {} at location: {}, skipping recalculation", productId, locationId);
+            return false;
+        }
+        InventoryBuffer buffer = bufferOpt.get();
 
-        for (String status : pipelineStatuses) {
-            try {
-                log.debug("Checking pipeline orders with status: {} for location: {}", status, locationId);
-                Page<InventoryOrderPipeline> ordersPage = inventoryOrderPipelineRepository
-                        .findByStatusAndLocationId(status, locationId, PageRequest.of(0, 1000));
+        Integer pipelineQty = inventoryOrderPipelineRepository
+                .sumOrderedQtyForProductAndLocationAndStatusIn(productId, locationId, PIPELINE_STATUSES)
+                .orElse(0);
 
-                log.debug("Found {} orders with status: {} for location: {}",
-                        ordersPage.getContent().size(), status, locationId);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Integer yesterdayConsumed = dailyConsumptionLogRepository
+                .sumQuantityConsumedBetweenDates(productId, locationId, yesterday.atStartOfDay(), yesterday.atTime(23, 59, 59))
+                .orElse(0);
 
-                ordersPage.getContent().forEach(order -> {
-                    String productId = order.getProductId();
+        boolean changed = updateBufferMetrics(buffer, Collections.singletonMap(productId, pipelineQty),
+                Collections.singletonMap(productId, yesterdayConsumed), false);
 
-                });
-            } catch (Exception e) {
-                log.error("Error calculating pipeline quantities for status {} at location {}: {}",
-                        status, locationId, e.getMessage(), e);
+        Map<String, String> failures = inventoryBufferRepository.bulkUpdateStatusMetrics(Collections.singletonList(buffer));
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Failed to save buffer " + buffer.getBufferId() + ": " + failures.get(buffer.getId()));
+        }
+        return changed;
+    }
+
+    /**
+     * Send the pending buffer updates as one unordered bulk write and count each outcome
+     */
+    private void flushBufferWrites(List<InventoryBuffer> pendingWrites, Set<String> changedBufferIds,
+                                   BufferUpdateResult result) {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> failures;
+        try {
+            failures = inventoryBufferRepository.bulkUpdateStatusMetrics(pendingWrites);
+        } catch (Exception e) {
+            log.error("Bulk write of {} buffers failed: {}", pendingWrites.size(), e.getMessage(), e);
+            failures = pendingWrites.stream()
+                    .collect(Collectors.toMap(InventoryBuffer::getId, buffer -> String.valueOf(e.getMessage()),
+                            (first, second) -> first));
+        }
+
+        for (InventoryBuffer buffer : pendingWrites) {
+            String error = failures.get(buffer.getId());
+            if (error != null) {
+                log.error("Error saving buffer {}: {}", buffer.getBufferId(), error);
+                result.recordError(buffer.getBufferId(), error);
+                continue;
+            }
+            result.incrementProcessed();
+            if (changedBufferIds.contains(buffer.getId())) {
+                result.incrementUpdated();
             }
         }
 
-        log.info("Final calculated pipeline quantities for location {}: {}", locationId, pipelineQuantities);
-        return pipelineQuantities;
+        log.debug("Flushed {} buffer updates with {} failures", pendingWrites.size(), failures.size());
+        pendingWrites.clear();
+        changedBufferIds.clear();
+    }
+
+    /**
+     * Sum open order quantities per product for a location in a single server-side aggregation
+     */
+    private Map<String, Integer> calculatePipelineQuantities(String locationId) {
+        log.debug("Starting pipeline calculation for location: {}", locationId);
+
+        try {
+            Map<String, Integer> pipelineQuantities = inventoryOrderPipelineRepository
+                    .sumOrderedQtyByProductForLocationAndStatusIn(locationId, PIPELINE_STATUSES)
+                    .stream()
+                    .filter(total -> total.getProductId() != null && total.getTotalQuantity() != null)
+                    .collect(Collectors.toMap(ProductQuantityTotalDTO::getProductId,
+                            ProductQuantityTotalDTO::getTotalQuantity));
+
+            log.info("Final calculated pipeline quantities for location {}: {} products", locationId, pipelineQuantities.size());
+            return pipelineQuantities;
+        } catch (Exception e) {
+            log.error("Error calculating pipeline quantities for location {}: {}", locationId, e.getMessage(), e);
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Sum yesterday's consumption per product for a location, from the in-memory series once it is loaded
+     * and otherwise in a single round trip
+     */
+    private Map<String, Integer> calculateYesterdayConsumption(String locationId) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (consumptionSeriesStore.covers(2)) {
+            return consumptionSeriesStore.dayTotalsByProduct(locationId, yesterday);
+        }
+        LocalDateTime startOfYesterday = yesterday.atStartOfDay();
+        LocalDateTime endOfYesterday = yesterday.atTime(23, 59, 59);
+
+        try {
+            Map<String, Integer> consumptionByProduct = dailyConsumptionLogRepository
+                    .sumQuantityConsumedByProductBetweenDates(locationId, startOfYesterday, endOfYesterday)
+                    .stream()
+                    .filter(total -> total.getProductId() != null && total.getTotalQuantity() != null)
+                    .collect(Collectors.toMap(ProductQuantityTotalDTO::getProductId,
+                            ProductQuantityTotalDTO::getTotalQuantity));
+
+            log.debug("Yesterday's consumption for location {} between {} and {}: {} products",
+                    locationId, startOfYesterday, endOfYesterday, consumptionByProduct.size());
+            return consumptionByProduct;
+        } catch (Exception e) {
+            log.error("Error calculating yesterday's consumption for location {}: {}", locationId, e.getMessage(), e);
+            // Buffers fall back to buffer units when no consumption is known
+            return new HashMap<>();
+        }
     }
 
     /**
      * Update metrics for a single buffer with corrected inventory calculation
      */
-    private boolean updateBufferMetrics(InventoryBuffer buffer, Map<String, Integer> pipelineQuantities) {
+    private boolean updateBufferMetrics(InventoryBuffer buffer, Map<String, Integer> pipelineQuantities,
+                                        Map<String, Integer> yesterdayConsumption, boolean countZoneDay) {
         String productId = buffer.getProductId();
         String locationId = buffer.getLocationId();
         String bufferId = buffer.getBufferId();
@@ -186,7 +444,7 @@ public class BufferStatusUpdateScheduler {
             Double originalBufferConsumedPct = buffer.getBufferConsumedPct();
 
             // STEP 1: Calculate current inventory = buffer_units - yesterday's consumption
-            Integer currentInventory = calculateCurrentInventory(buffer);
+            Integer currentInventory = calculateCurrentInventory(buffer, yesterdayConsumption);
             buffer.setCurrentInventory(currentInventory);
 
             log.debug("Updated current_inventory for buffer {}: {} -> {} (buffer_units - yesterday's consumption)",
@@ -220,13 +478,12 @@ public class BufferStatusUpdateScheduler {
             buffer.setCurrentZone(newZone);
 
             // STEP 6: Update consecutive zone days
-            updateConsecutiveZoneDays(buffer, originalZone, newZone, originalConsecutiveDays);
+            updateConsecutiveZoneDays(buffer, originalZone, newZone, originalConsecutiveDays, countZoneDay);
 
             // STEP 7: Update timestamps
             buffer.setUpdatedAt(LocalDateTime.now());
 
-            // STEP 8: Save the buffer
-            inventoryBufferRepository.save(buffer);
+            // STEP 8: The caller writes the buffer in a bulk batch
 
             // Check if any significant changes occurred
             boolean hasSignificantChanges = !Objects.equals(originalZone, newZone) ||
@@ -253,45 +510,20 @@ public class BufferStatusUpdateScheduler {
     /**
      * Calculate current inventory = buffer_units - yesterday's consumption
      */
-    private Integer calculateCurrentInventory(InventoryBuffer buffer) {
-        String productId = buffer.getProductId();
-        String locationId = buffer.getLocationId();
+    private Integer calculateCurrentInventory(InventoryBuffer buffer, Map<String, Integer> yesterdayConsumption) {
         Integer bufferUnits = buffer.getBufferUnits() != null ? buffer.getBufferUnits() : 0;
+        Integer yesterdayConsumed = yesterdayConsumption.getOrDefault(buffer.getProductId(), 0);
 
-        try {
-            // Get yesterday's date range
-            LocalDate yesterday = LocalDate.now().minusDays(1);
-            LocalDateTime startOfYesterday = yesterday.atStartOfDay();
-            LocalDateTime endOfYesterday = yesterday.atTime(23, 59, 59);
-
-            log.debug("Calculating yesterday's consumption for product {} at location {} between {} and {}",
-                    productId, locationId, startOfYesterday, endOfYesterday);
-
-            // Get yesterday's consumption using the fixed repository method
-            Optional<Integer> consumptionOpt = dailyConsumptionLogRepository
-                    .sumQuantityConsumedBetweenDates(productId, locationId, startOfYesterday, endOfYesterday);
-
-            Integer yesterdayConsumption = consumptionOpt.orElse(0);
+        log.debug("Yesterday's consumption for product {} at location {}: {}",
+                buffer.getProductId(), buffer.getLocationId(), yesterdayConsumed);
 
-            log.debug("Yesterday's consumption for product {} at location {}: {}",
-                    productId, locationId, yesterdayConsumption);
+        // Calculate current inventory = buffer_units - yesterday's consumption, never negative
+        Integer currentInventory = Math.max(0, bufferUnits - yesterdayConsumed);
 
-            // Calculate current inventory = buffer_units - yesterday's consumption
-            Integer currentInventory = bufferUnits - yesterdayConsumption;
+        log.debug("Current inventory calculation for buffer {}: buffer_units({}) - yesterday_consumption({}) = {}",
+                buffer.getBufferId(), bufferUnits, yesterdayConsumed, currentInventory);
 
-            // Ensure current inventory is not negative
-            currentInventory = Math.max(0, currentInventory);
-
-            log.debug("Current inventory calculation for buffer {}: buffer_units({}) - yesterday_consumption({}) = {}",
-                    buffer.getBufferId(), bufferUnits, yesterdayConsumption, currentInventory);
-
-            return currentInventory;
-
-        } catch (Exception e) {
-            log.error("Error calculating current inventory for buffer {}: {}", buffer.getBufferId(), e.getMessage(), e);
-            // Return buffer units as fallback if consumption calculation fails
-            return bufferUnits;
-        }
+        return currentInventory;
     }
 
     /**
@@ -352,7 +584,7 @@ public class BufferStatusUpdateScheduler {
      * Update consecutive zone days tracking
      */
     private void updateConsecutiveZoneDays(InventoryBuffer buffer, String originalZone,
-                                           String newZone, Integer originalConsecutiveDays) {
+                                           String newZone, Integer originalConsecutiveDays, boolean countZoneDay) {
         if (originalZone == null) {
             // First time zone assignment
             buffer.setConsecutiveZoneDays(1);
@@ -361,6 +593,12 @@ public class BufferStatusUpdateScheduler {
             return;
         }
 
+        if (Objects.equals(originalZone, newZone) && !countZoneDay) {
+            // Same zone on an intra-day recalculation, keep the day count
+            buffer.setConsecutiveZoneDays(originalConsecutiveDays);
+            return;
+        }
+
         if (Objects.equals(originalZone, newZone)) {
             // Same zone, increment consecutive days
             int newConsecutiveDays = (originalConsecutiveDays != null ? originalConsecutiveDays : 0) + 1;
@@ -380,9 +618,7 @@ public class BufferStatusUpdateScheduler {
      */
     private Set<String> getAllActiveLocationIds() {
         try {
-            Page<InventoryBuffer> activeBuffers = inventoryBufferRepository.findActiveBuffers(PageRequest.of(0, 10000));
-            Set<String> locationIds = activeBuffers.getContent().stream()
-                    .map(InventoryBuffer::getLocationId)
+            Set<String> locationIds = inventoryBufferRepository.findDistinctActiveLocationIds().stream()
                     .filter(Objects::nonNull)
                     .collect(Collectors.toSet());
 
@@ -395,20 +631,42 @@ public class BufferStatusUpdateScheduler {
     }
 
     /**
-     * Result class to track update statistics
+     * Result class to track update statistics, safe to merge from several worker threads
      */
     public static class BufferUpdateResult {
-        private int processedCount = 0;
-        private int updatedCount = 0;
-        private int errorCount = 0;
+        private static final int MAX_RECORDED_FAILURES = 100;
 
-        public void incrementProcessed() { this.processedCount++; }
-        public void incrementUpdated() { this.updatedCount++; }
-        public void incrementError() { this.errorCount++; }
+        private final AtomicInteger processedCount = new AtomicInteger();
+        private final AtomicInteger updatedCount = new AtomicInteger();
+        private final AtomicInteger errorCount = new AtomicInteger();
+        private final Map<String, String> failedBuffers = new ConcurrentHashMap<>();
+
+        public void incrementProcessed() { this.processedCount.incrementAndGet(); }
+        public void incrementUpdated() { this.updatedCount.incrementAndGet(); }
+        public void incrementError() { this.errorCount.incrementAndGet(); }
+
+        public void recordError(String bufferId, String message) {
+            this.errorCount.incrementAndGet();
+            if (bufferId != null && failedBuffers.size() < MAX_RECORDED_FAILURES) {
+                failedBuffers.put(bufferId, String.valueOf(message));
+            }
+        }
+
+        public void merge(BufferUpdateResult other) {
+            this.processedCount.addAndGet(other.getProcessedCount());
+            this.updatedCount.addAndGet(other.getUpdatedCount());
+            this.errorCount.addAndGet(other.getErrorCount());
+            other.getFailedBuffers().forEach((bufferId, message) -> {
+                if (failedBuffers.size() < MAX_RECORDED_FAILURES) {
+                    failedBuffers.put(bufferId, message);
+                }
+            });
+        }
 
-        public int getProcessedCount() { return processedCount; }
-        public int getUpdatedCount() { return updatedCount; }
-        public int getErrorCount() { return errorCount; }
+        public int getProcessedCount() { return processedCount.get(); }
+        public int getUpdatedCount() { return updatedCount.get(); }
+        public int getErrorCount() { return errorCount.get(); }
+        public Map<String, String> getFailedBuffers() { return failedBuffers; }
     }
 }
 
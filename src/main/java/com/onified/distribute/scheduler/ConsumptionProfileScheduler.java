@@ -1,25 +1,28 @@
 package com.onified.distribute.scheduler;
 
+import com.onified.distribute.config.ConsumptionProfileConfig;
 import com.onified.distribute.dto.*;
 import com.onified.distribute.entity.*;
 import com.onified.distribute.repository.DailyConsumptionLogRepository;
 import com.onified.distribute.service.consumption.ConsumptionProfileService;
-import com.onified.distribute.service.consumption.DailyConsumptionLogService;
-import com.onified.distribute.service.masterdata.SeasonalityAdjustmentService;
-import com.onified.distribute.service.masterdata.SpecialEventService;
+import com.onified.distribute.service.consumption.ConsumptionWindowService;
+import com.onified.distribute.service.consumption.NormalizationFactorService;
+import com.onified.distribute.service.job.PartitionLeaseService;
 import lombok.RequiredArgsConstructor;
+import com.onified.distribute.util.NormalizationFactorTable;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
@@ -28,190 +31,118 @@ public class ConsumptionProfileScheduler {
 
     private final DailyConsumptionLogRepository dailyConsumptionLogRepository;
     private final ConsumptionProfileService consumptionProfileService;
-    private final DailyConsumptionLogService dailyConsumptionLogService;
-    private final SeasonalityAdjustmentService seasonalityAdjustmentService;
-    private final SpecialEventService specialEventService;
-    private final MongoTemplate mongoTemplate;
+    private final ConsumptionWindowService consumptionWindowService;
+    private final NormalizationFactorService normalizationFactorService;
+    private final PartitionLeaseService partitionLeaseService;
+    private final ConsumptionProfileConfig consumptionProfileConfig;
 
-    @Scheduled(cron = "0 0 19 * * ?")
+    @Scheduled(cron = JobRun.CONSUMPTION_PROFILE_RECALCULATION_CRON)
     @Transactional
     public void recalculateConsumptionProfiles() {
         log.info("Starting scheduled recalculation of consumption profiles at {}",
                 ZonedDateTime.now(ZoneId.of("Asia/Kolkata")));
 
-        List<ProductLocationPair> pairs = getDistinctProductLocationPairs();
-        log.info("Found {} distinct product-location pairs", pairs.size());
-
-        for (ProductLocationPair pair : pairs) {
-            try {
-                recalculateProfileForPair(pair.getProductId(), pair.getLocationId());
-            } catch (Exception e) {
-                log.error("Error recalculating profile for product: {} and location: {}",
-                        pair.getProductId(), pair.getLocationId(), e);
+        // Each replica recalculates only the location partitions it claims for this trigger
+        Map<Integer, List<String>> locationsByPartition = groupLocationsByPartition();
+        log.info("Found {} locations with consumption logs",
+                locationsByPartition.values().stream().mapToInt(List::size).sum());
+        String runKey = partitionLeaseService.runKeyFor(JobRun.CONSUMPTION_PROFILE_RECALCULATION,
+                JobRun.CONSUMPTION_PROFILE_RECALCULATION_CRON);
+
+        boolean aggregationEnabled = Boolean.TRUE.equals(consumptionProfileConfig.getAggregationEnabled());
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("Asia/Kolkata"));
+        // Seasonality and event factors are read once for the run rather than once per pair
+        NormalizationFactorTable factors = normalizationFactorService.loadFactorTable(now);
+
+        partitionLeaseService.processPartitions(JobRun.CONSUMPTION_PROFILE_RECALCULATION, runKey, partition -> {
+            List<String> partitionLocations = locationsByPartition.getOrDefault(partition, Collections.emptyList());
+            if (partitionLocations.isEmpty()) {
+                return;
             }
-        }
+            if (aggregationEnabled) {
+                recalculatePartitionByAggregation(partition, partitionLocations, factors);
+            } else {
+                recalculatePartitionByPair(partitionLocations, factors);
+            }
+        });
 
         log.info("Completed scheduled recalculation of consumption profiles");
     }
 
-    private void recalculateProfileForPair(String productId, String locationId) {
-        log.info("Recalculating consumption profile for product: {} at location: {}", productId, locationId);
-
-
-        List<DailyConsumptionLogDTO> last7Days = dailyConsumptionLogService.getRecentConsumption(productId, locationId, 7);
-        List<DailyConsumptionLogDTO> last14Days = dailyConsumptionLogService.getRecentConsumption(productId, locationId, 14);
-        List<DailyConsumptionLogDTO> last30Days = dailyConsumptionLogService.getRecentConsumption(productId, locationId, 30);
-        List<DailyConsumptionLogDTO> last60Days = dailyConsumptionLogService.getRecentConsumption(productId, locationId, 60);
-
-        log.info("Fetched {} logs for 7 days, {} for 14 days, {} for 30 days, {} for 60 days",
-                last7Days.size(), last14Days.size(), last30Days.size(), last60Days.size());
-
-        Double adc7d = calculateADC(last7Days);
-        Double adc14d = calculateADC(last14Days);
-        Double adc30d = calculateADC(last30Days);
-        Double adc60d = calculateADC(last60Days);
-
-        Integer currentMonth = ZonedDateTime.now(ZoneId.of("Asia/Kolkata")).getMonthValue();
-        Double seasonalityFactor = seasonalityAdjustmentService.getSeasonalityFactor(productId, locationId, currentMonth);
-        Double eventImpactFactor = specialEventService.getEventImpactFactor(productId, locationId,
-                ZonedDateTime.now(ZoneId.of("Asia/Kolkata")).toLocalDateTime());
-
-        Double adcNormalized = adc30d * (seasonalityFactor + eventImpactFactor);
-
-        Double coefficientOfVariation = calculateCoefficientOfVariation(last30Days);
-        Double stdDeviation = calculateStandardDeviation(last30Days);
-
-        String adcTrend = determineTrend(adc7d, adc14d, adc30d);
-        Double trendConfidence = calculateTrendConfidence(adc7d, adc14d, adc30d);
-
-        DailyConsumptionLogDTO latestConsumption = dailyConsumptionLogService.getLatestConsumption(productId, locationId);
-        LocalDateTime lastConsumptionDate = latestConsumption != null ? latestConsumption.getConsumptionDate() : null;
-
-        ConsumptionProfileDTO profileDto = new ConsumptionProfileDTO();
-        profileDto.setProductId(productId);
-        profileDto.setLocationId(locationId);
-        profileDto.setAdc7d(adc7d);
-        profileDto.setAdc14d(adc14d);
-        profileDto.setAdc30d(adc30d);
-        profileDto.setAdc60d(adc60d);
-        profileDto.setAdcNormalized(adcNormalized);
-        profileDto.setAdcTrend(adcTrend);
-        profileDto.setTrendConfidence(trendConfidence);
-        profileDto.setCoefficientOfVariation(coefficientOfVariation);
-        profileDto.setStdDeviation(stdDeviation);
-        profileDto.setDataPointsUsed(last30Days.size());
-        profileDto.setLastConsumptionDate(lastConsumptionDate);
-        profileDto.setCalculationDate(ZonedDateTime.now(ZoneId.of("Asia/Kolkata")).toLocalDateTime());
-        profileDto.setUpdatedAt(ZonedDateTime.now(ZoneId.of("Asia/Kolkata")).toLocalDateTime());
-
-        if (consumptionProfileService.existsByProductAndLocation(productId, locationId)) {
-            ConsumptionProfileDTO existingProfileDto = consumptionProfileService
-                    .getConsumptionProfileByProductAndLocation(productId, locationId);
-            consumptionProfileService.updateConsumptionProfile(existingProfileDto.getId(), profileDto);
-        } else {
-            consumptionProfileService.createConsumptionProfile(profileDto);
-        }
-
-        verifyUpdatedProfile(productId, locationId);
-    }
-
-    private List<ProductLocationPair> getDistinctProductLocationPairs() {
-        Query query = new Query();
-        query.fields().include("productId", "locationId");
-        List<DailyConsumptionLog> logs = mongoTemplate.find(query, DailyConsumptionLog.class);
-        return logs.stream()
-                .map(log -> new ProductLocationPair(log.getProductId(), log.getLocationId()))
-                .distinct()
-                .collect(Collectors.toList());
-    }
-
-    private Double calculateADC(List<DailyConsumptionLogDTO> consumptionLogs) {
-        if (consumptionLogs.isEmpty()) {
-            return 0.0;
+    /**
+     * Rebuilds the rolling consumption windows from the logs, partition by partition, to correct drift in the
+     * accumulators that ingest keeps current
+     */
+    @Scheduled(cron = "${consumption.profile.window-recompute-cron:0 55 18 * * SUN}")
+    public void recomputeConsumptionWindows() {
+        if (!Boolean.TRUE.equals(consumptionProfileConfig.getIncrementalEnabled())) {
+            return;
         }
-        double totalConsumption = consumptionLogs.stream()
-                .mapToDouble(log -> log.getQuantityConsumed() != null ? log.getQuantityConsumed() : 0.0)
-                .sum();
-        return totalConsumption / consumptionLogs.size();
-    }
+        log.info("Starting scheduled recompute of consumption windows");
+
+        Map<Integer, List<String>> locationsByPartition = groupLocationsByPartition();
+        String runKey = partitionLeaseService.runKeyFor(JobRun.CONSUMPTION_WINDOW_RECOMPUTE,
+                consumptionProfileConfig.getWindowRecomputeCron());
+        partitionLeaseService.processPartitions(JobRun.CONSUMPTION_WINDOW_RECOMPUTE, runKey, partition -> {
+            List<String> partitionLocations = locationsByPartition.getOrDefault(partition, Collections.emptyList());
+            if (partitionLocations.isEmpty()) {
+                return;
+            }
+            try {
+                consumptionWindowService.recompute(partitionLocations);
+            } catch (Exception e) {
+                log.error("Error recomputing consumption windows for partition {}", partition, e);
+            }
+        });
 
-    private String determineTrend(Double adc7d, Double adc14d, Double adc30d) {
-        if (adc7d == null || adc14d == null || adc30d == null) {
-            return "STABLE";
-        }
-        double shortTermTrend = (adc7d - adc14d) / adc14d * 100;
-        double longTermTrend = (adc14d - adc30d) / adc30d * 100;
-        if (shortTermTrend > 10 && longTermTrend > 5) {
-            return "INCREASING";
-        } else if (shortTermTrend < -10 && longTermTrend < -5) {
-            return "DECREASING";
-        } else if (Math.abs(shortTermTrend) > 20) {
-            return "VOLATILE";
-        } else {
-            return "STABLE";
-        }
+        log.info("Completed scheduled recompute of consumption windows");
     }
 
-    private Double calculateTrendConfidence(Double adc7d, Double adc14d, Double adc30d) {
-        if (adc7d == null || adc14d == null || adc30d == null) {
-            return 0.0;
-        }
-        double variance = Math.pow(adc7d - adc30d, 2) + Math.pow(adc14d - adc30d, 2);
-        double maxVariance = Math.pow(adc30d, 2) * 2;
-        return Math.max(0.0, Math.min(1.0, 1.0 - (variance / maxVariance)));
-    }
+    private void recalculateProfileForPair(String productId, String locationId, NormalizationFactorTable factors) {
+        log.info("Recalculating consumption profile for product: {} at location: {}", productId, locationId);
 
-    private Double calculateCoefficientOfVariation(List<DailyConsumptionLogDTO> consumptionLogs) {
-        if (consumptionLogs.size() < 2) {
-            return 0.0;
-        }
-        double mean = calculateADC(consumptionLogs);
-        if (mean == 0) {
-            return 0.0;
-        }
-        double stdDev = calculateStandardDeviation(consumptionLogs);
-        return (stdDev / mean) * 100;
+        ConsumptionProfileDTO profile = consumptionProfileService.calculateConsumptionProfile(productId, locationId,
+                factors.normalizationFactor(productId, locationId));
+        log.info("Updated profile for product: {} at location: {}. ADC_7d: {}, ADC_30d: {}, ADC_Normalized: {}",
+                productId, locationId, profile.getAdc7d(), profile.getAdc30d(), profile.getAdcNormalized());
     }
 
-    private Double calculateStandardDeviation(List<DailyConsumptionLogDTO> consumptionLogs) {
-        if (consumptionLogs.size() < 2) {
-            return 0.0;
+    /**
+     * Streams the partition's pairs from the server-side $group, so only one pair is held at a time
+     */
+    private void recalculatePartitionByPair(List<String> locationIds, NormalizationFactorTable factors) {
+        try (Stream<ProductLocationPairDTO> pairs = dailyConsumptionLogRepository.streamDistinctProductLocationPairs(locationIds)) {
+            pairs.forEach(pair -> {
+                if (pair.getProductId() == null) {
+                    return;
+                }
+                try {
+                    recalculateProfileForPair(pair.getProductId(), pair.getLocationId(), factors);
+                } catch (Exception e) {
+                    log.error("Error recalculating profile for product: {} and location: {}",
+                            pair.getProductId(), pair.getLocationId(), e);
+                }
+            });
         }
-        double mean = calculateADC(consumptionLogs);
-        double sumSquaredDiffs = consumptionLogs.stream()
-                .mapToDouble(log -> {
-                    double value = log.getQuantityConsumed() != null ? log.getQuantityConsumed() : 0.0;
-                    return Math.pow(value - mean, 2);
-                })
-                .sum();
-        return Math.sqrt(sumSquaredDiffs / (consumptionLogs.size() - 1));
     }
 
-    private void verifyUpdatedProfile(String productId, String locationId) {
+    private void recalculatePartitionByAggregation(int partition, List<String> locationIds,
+                                                   NormalizationFactorTable factors) {
         try {
-            ConsumptionProfileDTO profile = consumptionProfileService.getConsumptionProfileByProductAndLocation(productId, locationId);
-            log.info("Verified updated profile for product: {} at location: {}. ADC_7d: {}, ADC_30d: {}, ADC_Normalized: {}",
-                    productId, locationId, profile.getAdc7d(), profile.getAdc30d(), profile.getAdcNormalized());
+            long written = consumptionProfileService.recalculateProfilesByAggregation(locationIds,
+                    factors::normalizationFactor);
+            log.info("Partition {}: aggregated {} consumption profiles across {} locations", partition, written, locationIds.size());
         } catch (Exception e) {
-            log.error("Error verifying profile for product: {} at location: {}", productId, locationId, e);
+            log.error("Error aggregating consumption profiles for partition {}", partition, e);
         }
     }
 
-    private static class ProductLocationPair {
-        private String productId;
-        private String locationId;
-
-        public ProductLocationPair(String productId, String locationId) {
-            this.productId = productId;
-            this.locationId = locationId;
-        }
-
-        public String getProductId() {
-            return productId;
-        }
-
-        public String getLocationId() {
-            return locationId;
-        }
+    /**
+     * Location ids with logs, by partition. Logs without a location id belong to no partition and are skipped.
+     */
+    private Map<Integer, List<String>> groupLocationsByPartition() {
+        return dailyConsumptionLogRepository.findDistinctLocationIds().stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(partitionLeaseService::partitionOf));
     }
-}
\ No newline at end of file
+}
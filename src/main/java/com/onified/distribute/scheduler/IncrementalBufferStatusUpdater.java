@@ -0,0 +1,88 @@
+package com.onified.distribute.scheduler;
+
+import com.onified.distribute.config.BufferStatusUpdateConfig;
+import com.onified.distribute.event.BufferInputChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recalculates single buffers shortly after their consumption or pipeline inputs change.
+ * Events only mark the product-location pair dirty; a short fixed-delay drain coalesces
+ * repeated events for the same pair into one recalculation. The drain has its own thread so the
+ * nightly jobs on the shared @Scheduled thread cannot hold it back.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IncrementalBufferStatusUpdater {
+
+    private static final String KEY_SEPARATOR = "|";
+
+    private final BufferStatusUpdateScheduler bufferStatusUpdateScheduler;
+    private final BufferStatusUpdateConfig bufferStatusUpdateConfig;
+
+    private final Set<String> dirtyPairs = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService drainExecutor;
+
+    @PostConstruct
+    public void start() {
+        drainExecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("buffer-incremental-"));
+        long interval = bufferStatusUpdateConfig.getIncrementalFlushIntervalMs();
+        drainExecutor.scheduleWithFixedDelay(this::recalculateDirtyBuffers, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        drainExecutor.shutdownNow();
+    }
+
+    @EventListener
+    public void onBufferInputChanged(BufferInputChangedEvent event) {
+        if (!Boolean.TRUE.equals(bufferStatusUpdateConfig.getIncrementalEnabled())
+                || event.getProductId() == null || event.getLocationId() == null) {
+            return;
+        }
+        dirtyPairs.add(event.getProductId() + KEY_SEPARATOR + event.getLocationId());
+        log.debug("Queued buffer recalculation for product: {} at location: {} (source: {})",
+                event.getProductId(), event.getLocationId(), event.getSource());
+    }
+
+    public void recalculateDirtyBuffers() {
+        if (dirtyPairs.isEmpty()) {
+            return;
+        }
+
+        List<String> pairs = new ArrayList<>(dirtyPairs);
+        dirtyPairs.removeAll(pairs);
+
+        int updated = 0;
+        for (String pair : pairs) {
+            int separator = pair.indexOf(KEY_SEPARATOR);
+            String productId = pair.substring(0, separator);
+            String locationId = pair.substring(separator + 1);
+            try {
+                if (bufferStatusUpdateScheduler.updateBufferStatusForPair(productId, locationId)) {
+                    updated++;
+                }
+            } catch (Exception e) {
+                log.error("Error recalculating buffer for product: {} at location: {}: {}",
+                        productId, locationId, e.getMessage(), e);
+            }
+        }
+
+        log.info("Incremental buffer status update - Recalculated: {}, Zone or quantity changed: {}", pairs.size(), updated);
+    }
+}
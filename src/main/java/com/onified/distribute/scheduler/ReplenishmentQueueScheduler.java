@@ -1,12 +1,18 @@
 package com.onified.distribute.scheduler;
 
+import com.onified.distribute.entity.JobRun;
 import com.onified.distribute.service.order.ReplenishmentQueueService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -14,9 +20,10 @@ import org.springframework.stereotype.Component;
 public class ReplenishmentQueueScheduler {
 
     private final ReplenishmentQueueService replenishmentQueueService;
+    private final TaskScheduler taskScheduler;
 
     // Run hourly
-    @Scheduled(cron = "0 20 19 * * ?")
+    @Scheduled(cron = JobRun.REPLENISHMENT_QUEUE_GENERATION_CRON)
     public void generateDailyReplenishmentQueue() {
         log.info("Starting scheduled hourly replenishment queue generation");
         try {
@@ -26,4 +33,19 @@ public class ReplenishmentQueueScheduler {
             log.error("Error in scheduled hourly replenishment queue generation", e);
         }
     }
+
+    /**
+     * Finish the latest trigger's run when the previous instance stopped before completing it, instead of
+     * leaving its remaining partitions until the next trigger starts over
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        taskScheduler.schedule(() -> {
+            try {
+                replenishmentQueueService.resumeInterruptedQueueGeneration();
+            } catch (Exception e) {
+                log.error("Error resuming replenishment queue generation", e);
+            }
+        }, Instant.now());
+    }
 }
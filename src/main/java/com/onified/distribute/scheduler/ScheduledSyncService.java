@@ -1,5 +1,8 @@
 package com.onified.distribute.scheduler;
 
+import com.onified.distribute.entity.JobRun;
+import com.onified.distribute.service.consumption.ConsumptionSeriesStore;
+import com.onified.distribute.service.job.PartitionLeaseService;
 import com.onified.distribute.service.sap.SapIntegrationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,15 +17,24 @@ import java.time.LocalDate;
 public class ScheduledSyncService {
 
     private final SapIntegrationService sapIntegrationService;
+    private final PartitionLeaseService partitionLeaseService;
+    private final ConsumptionSeriesStore consumptionSeriesStore;
 
-    @Scheduled(cron = "0 50 18 * * ?") // Daily at 1 AM
+    @Scheduled(cron = JobRun.SAP_DAILY_SYNC_CRON) // Daily at 1 AM
     public void scheduledDailySync() {
         log.info("Starting scheduled daily SAP sync");
 
         try {
             LocalDate yesterday = LocalDate.now().minusDays(1);
-            sapIntegrationService.syncDailyConsumptionData(yesterday, yesterday);
+            String runKey = partitionLeaseService.runKeyFor(JobRun.SAP_DAILY_SYNC, JobRun.SAP_DAILY_SYNC_CRON);
+            // Each replica syncs only the SAP locations in the partitions it claims
+            partitionLeaseService.processPartitions(JobRun.SAP_DAILY_SYNC, runKey, partition ->
+                    sapIntegrationService.syncDailyConsumptionData(yesterday, yesterday,
+                            location -> partitionLeaseService.partitionOf(location) == partition));
             log.info("Scheduled daily SAP sync completed successfully for date: {}", yesterday);
+
+            // Picks up the logs synced on peers; the buffer status update reloads again for partitions they finish later
+            consumptionSeriesStore.refresh();
         } catch (Exception e) {
             log.error("Error in scheduled daily SAP sync", e);
         }
@@ -5,6 +5,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.ToDoubleBiFunction;
 import com.onified.distribute.dto.response.BufferConsumptionResponseDTO;
 
 public interface ConsumptionProfileService {
@@ -18,7 +20,21 @@ public interface ConsumptionProfileService {
     Page<ConsumptionProfileDTO> getConsumptionProfilesByLocation(String locationId, Pageable pageable);
     Page<ConsumptionProfileDTO> getConsumptionProfilesByTrend(String adcTrend, Pageable pageable);
     ConsumptionProfileDTO calculateConsumptionProfile(String productId, String locationId);
+
+    /**
+     * Recalculates the profile from one 60-day log read and one upsert, with adcNormalized = adc30d * normalizationFactor
+     */
+    ConsumptionProfileDTO calculateConsumptionProfile(String productId, String locationId, double normalizationFactor);
+
     ConsumptionProfileDTO recalculateProfile(String profileId);
+
+    /**
+     * Recalculates every profile at the given locations (all locations when null) with one $group/$merge pipeline,
+     * then applies trend and adcNormalized = adc30d * normalizationFactor(productId, locationId) in a Java pass.
+     * Returns the number of profiles written.
+     */
+    long recalculateProfilesByAggregation(Collection<String> locationIds, ToDoubleBiFunction<String, String> normalizationFactor);
+
     Page<ConsumptionProfileDTO> getProfilesNeedingRecalculation(LocalDateTime cutoffDate, Pageable pageable);
     void deleteConsumptionProfile(String profileId);
     boolean existsByProductAndLocation(String productId, String locationId);
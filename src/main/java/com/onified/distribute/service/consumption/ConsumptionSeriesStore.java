@@ -0,0 +1,31 @@
+package com.onified.distribute.service.consumption;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public interface ConsumptionSeriesStore {
+
+    /**
+     * True once the store is loaded and holds at least the given number of days, today included
+     */
+    boolean covers(int days);
+
+    /**
+     * Mean quantity per log row over the last days days, today included; 0 without rows
+     */
+    double averageConsumption(String productId, String locationId, int days);
+
+    long totalConsumption(String productId, String locationId, int days);
+
+    /**
+     * Total per product that has rows at the location on the day
+     */
+    Map<String, Integer> dayTotalsByProduct(String locationId, LocalDate day);
+
+    void reload();
+
+    /**
+     * Reloads when the store is enabled; a failed load is logged and leaves reads on Mongo once the store is stale
+     */
+    void refresh();
+}
@@ -0,0 +1,12 @@
+package com.onified.distribute.service.consumption;
+
+import com.onified.distribute.event.ConsumptionLogChangedEvent;
+import com.onified.distribute.util.ConsumptionWindowStats;
+
+import java.util.Collection;
+
+public interface ConsumptionWindowService {
+    void applyLogChange(ConsumptionLogChangedEvent event);
+    ConsumptionWindowStats getWindowStats(String productId, String locationId);
+    void recompute(Collection<String> locationIds);
+}
@@ -1,8 +1,10 @@
 package com.onified.distribute.service.consumption;
 
+import com.onified.distribute.dto.CursorSliceDTO;
 import com.onified.distribute.dto.DailyConsumptionLogDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,6 +19,8 @@ public interface DailyConsumptionLogService {
     
     Page<DailyConsumptionLogDTO> getAllDailyConsumptionLogs(Pageable pageable);
     
+    CursorSliceDTO<DailyConsumptionLogDTO> getDailyConsumptionLogsAfter(Sort.Order order, String after, int size);
+    
     Page<DailyConsumptionLogDTO> getDailyConsumptionLogsByProduct(String productId, Pageable pageable);
     
     Page<DailyConsumptionLogDTO> getDailyConsumptionLogsByLocation(String locationId, Pageable pageable);
@@ -0,0 +1,13 @@
+package com.onified.distribute.service.consumption;
+
+import com.onified.distribute.util.NormalizationFactorTable;
+
+import java.time.ZonedDateTime;
+
+public interface NormalizationFactorService {
+
+    /**
+     * Seasonality and event factors of every pair for the given run time, read in one query per collection
+     */
+    NormalizationFactorTable loadFactorTable(ZonedDateTime now);
+}
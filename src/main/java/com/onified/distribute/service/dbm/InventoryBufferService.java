@@ -1,9 +1,13 @@
 package com.onified.distribute.service.dbm;
 
+import com.onified.distribute.dto.CursorSliceDTO;
 import com.onified.distribute.dto.InventoryBufferDTO;
+import com.onified.distribute.util.ExportFormat;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -11,6 +15,8 @@ public interface InventoryBufferService {
     InventoryBufferDTO getInventoryBufferById(String bufferId);
     InventoryBufferDTO getInventoryBufferByProductAndLocation(String productId, String locationId);
     Page<InventoryBufferDTO> getAllInventoryBuffers(Pageable pageable);
+    CursorSliceDTO<InventoryBufferDTO> getInventoryBuffersAfter(Sort.Order order, String after, int size);
+    long exportInventoryBuffers(ExportFormat format, OutputStream out);
     Page<InventoryBufferDTO> getInventoryBuffersByProduct(String productId, Pageable pageable);
     Page<InventoryBufferDTO> getInventoryBuffersByLocation(String locationId, Pageable pageable);
     Page<InventoryBufferDTO> getInventoryBuffersByCurrentZone(String currentZone, Pageable pageable);
@@ -1,15 +1,20 @@
 package com.onified.distribute.service.impl.consumption;
 
+import com.onified.distribute.config.ConsumptionProfileConfig;
 import com.onified.distribute.dto.response.BufferConsumptionResponseDTO;
 import com.onified.distribute.dto.ConsumptionProfileDTO;
 import com.onified.distribute.dto.DailyConsumptionLogDTO;
 import com.onified.distribute.dto.InventoryBufferDTO;
 import com.onified.distribute.entity.ConsumptionProfile;
+import com.onified.distribute.entity.DailyConsumptionLog;
 import com.onified.distribute.repository.ConsumptionProfileRepository;
+import com.onified.distribute.repository.DailyConsumptionLogRepository;
 import com.onified.distribute.service.consumption.ConsumptionProfileService;
+import com.onified.distribute.service.consumption.ConsumptionWindowService;
 import com.onified.distribute.service.consumption.DailyConsumptionLogService;
 import com.onified.distribute.service.dbm.InventoryBufferService;
 import com.onified.distribute.service.masterdata.ProductService;
+import com.onified.distribute.util.ConsumptionWindowStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -19,7 +24,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.ToDoubleBiFunction;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -28,9 +39,12 @@ import java.util.List;
 public class ConsumptionProfileServiceImpl implements ConsumptionProfileService {
 
     private final ConsumptionProfileRepository consumptionProfileRepository;
+    private final DailyConsumptionLogRepository dailyConsumptionLogRepository;
     private final DailyConsumptionLogService dailyConsumptionLogService;
+    private final ConsumptionWindowService consumptionWindowService;
     private final InventoryBufferService inventoryBufferService;
     private final ProductService productService;
+    private final ConsumptionProfileConfig consumptionProfileConfig;
 
     @Override
     public ConsumptionProfileDTO createConsumptionProfile(ConsumptionProfileDTO profileDto) {
@@ -116,48 +130,77 @@ public class ConsumptionProfileServiceImpl implements ConsumptionProfileService
 
     @Override
     public ConsumptionProfileDTO calculateConsumptionProfile(String productId, String locationId) {
+        return calculateConsumptionProfile(productId, locationId, 1.0);
+    }
+
+    @Override
+    public ConsumptionProfileDTO calculateConsumptionProfile(String productId, String locationId, double normalizationFactor) {
         log.info("Calculating consumption profile for product: {} at location: {}", productId, locationId);
 
-        List<DailyConsumptionLogDTO> last7Days = dailyConsumptionLogService.getRecentConsumption(productId, locationId, 7);
-        List<DailyConsumptionLogDTO> last14Days = dailyConsumptionLogService.getRecentConsumption(productId, locationId, 14);
-        List<DailyConsumptionLogDTO> last30Days = dailyConsumptionLogService.getRecentConsumption(productId, locationId, 30);
-        List<DailyConsumptionLogDTO> last60Days = dailyConsumptionLogService.getRecentConsumption(productId, locationId, 60);
-
-        Double adc7d = calculateADC(last7Days);
-        Double adc14d = calculateADC(last14Days);
-        Double adc30d = calculateADC(last30Days);
-        Double adc60d = calculateADC(last60Days);
-
-        Double adcNormalized = adc30d;
-        String adcTrend = determineTrend(adc7d, adc14d, adc30d);
-        Double trendConfidence = calculateTrendConfidence(adc7d, adc14d, adc30d);
-        Double coefficientOfVariation = calculateCoefficientOfVariation(last30Days);
-        Double stdDeviation = calculateStandardDeviation(last30Days);
-
-        DailyConsumptionLogDTO latestConsumption = dailyConsumptionLogService.getLatestConsumption(productId, locationId);
-        LocalDateTime lastConsumptionDate = latestConsumption != null ? latestConsumption.getConsumptionDate() : null;
-
-        ConsumptionProfileDTO profileDto = new ConsumptionProfileDTO();
-        profileDto.setProductId(productId);
-        profileDto.setLocationId(locationId);
-        profileDto.setAdc7d(adc7d);
-        profileDto.setAdc14d(adc14d);
-        profileDto.setAdc30d(adc30d);
-        profileDto.setAdc60d(adc60d);
-        profileDto.setAdcNormalized(adcNormalized);
-        profileDto.setAdcTrend(adcTrend);
-        profileDto.setTrendConfidence(trendConfidence);
-        profileDto.setCoefficientOfVariation(coefficientOfVariation);
-        profileDto.setStdDeviation(stdDeviation);
-        profileDto.setDataPointsUsed(last30Days.size());
-        profileDto.setLastConsumptionDate(lastConsumptionDate);
-
-        if (existsByProductAndLocation(productId, locationId)) {
-            ConsumptionProfile existingProfile = consumptionProfileRepository.findByProductIdAndLocationId(productId, locationId).get();
-            return updateConsumptionProfile(existingProfile.getId(), profileDto);
-        } else {
-            return createConsumptionProfile(profileDto);
+        LocalDateTime now = LocalDateTime.now();
+        ConsumptionWindowStats stats = consumptionWindowService.getWindowStats(productId, locationId);
+        if (stats == null) {
+            List<DailyConsumptionLog> logs = dailyConsumptionLogRepository.findConsumptionQuantitiesSince(
+                    productId, locationId, now.minusDays(ConsumptionWindowStats.MAX_WINDOW_DAYS));
+            stats = ConsumptionWindowStats.fromLogs(logs, now);
+        }
+
+        ConsumptionProfile profile = new ConsumptionProfile();
+        profile.setProductId(productId);
+        profile.setLocationId(locationId);
+        profile.setAdc7d(stats.getAdc7d());
+        profile.setAdc14d(stats.getAdc14d());
+        profile.setAdc30d(stats.getAdc30d());
+        profile.setAdc60d(stats.getAdc60d());
+        profile.setAdcNormalized(stats.getAdc30d() * normalizationFactor);
+        profile.setAdcTrend(stats.getTrend());
+        profile.setTrendConfidence(stats.getTrendConfidence());
+        profile.setCoefficientOfVariation(stats.getCoefficientOfVariation());
+        profile.setStdDeviation(stats.getStdDeviation());
+        profile.setDataPointsUsed(stats.getDataPointsUsed());
+        profile.setLastConsumptionDate(stats.getLastConsumptionDate());
+        profile.setCalculationDate(now);
+        profile.setUpdatedAt(now);
+
+        return convertToDto(consumptionProfileRepository.upsertCalculatedProfile(profile));
+    }
+
+    @Override
+    public long recalculateProfilesByAggregation(Collection<String> locationIds,
+                                                 ToDoubleBiFunction<String, String> normalizationFactor) {
+        // Mongo keeps millisecond precision, so the stamp must too for the post-pass to find the merged profiles
+        LocalDateTime calculatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        consumptionProfileRepository.mergeProfilesFromLogs(locationIds, calculatedAt);
+        long reset = consumptionProfileRepository.resetProfilesWithoutLogsSince(
+                locationIds, calculatedAt.minusDays(ConsumptionWindowStats.MAX_WINDOW_DAYS), calculatedAt);
+
+        int batchSize = consumptionProfileConfig.getWriteBatchSize();
+        List<ConsumptionProfile> batch = new ArrayList<>(batchSize);
+        long written = 0;
+        try (Stream<ConsumptionProfile> profiles = consumptionProfileRepository.streamByCalculationDate(locationIds, calculatedAt)) {
+            Iterator<ConsumptionProfile> iterator = profiles.iterator();
+            while (iterator.hasNext()) {
+                ConsumptionProfile profile = iterator.next();
+                double adc7d = profile.getAdc7d() != null ? profile.getAdc7d() : 0.0;
+                double adc14d = profile.getAdc14d() != null ? profile.getAdc14d() : 0.0;
+                double adc30d = profile.getAdc30d() != null ? profile.getAdc30d() : 0.0;
+                profile.setAdcTrend(ConsumptionWindowStats.trendOf(adc7d, adc14d, adc30d));
+                profile.setTrendConfidence(ConsumptionWindowStats.trendConfidenceOf(adc7d, adc14d, adc30d));
+                profile.setAdcNormalized(adc30d * normalizationFactor.applyAsDouble(profile.getProductId(), profile.getLocationId()));
+                batch.add(profile);
+                if (batch.size() >= batchSize) {
+                    consumptionProfileRepository.bulkUpdateTrendAndNormalization(batch);
+                    written += batch.size();
+                    batch.clear();
+                }
+            }
         }
+        consumptionProfileRepository.bulkUpdateTrendAndNormalization(batch);
+        written += batch.size();
+
+        log.info("Aggregated {} consumption profiles ({} without logs in the last {} days)",
+                written, reset, ConsumptionWindowStats.MAX_WINDOW_DAYS);
+        return written;
     }
 
     @Override
@@ -246,78 +289,6 @@ public class ConsumptionProfileServiceImpl implements ConsumptionProfileService
         return response;
     }
 
-    private Double calculateADC(List<DailyConsumptionLogDTO> consumptionLogs) {
-        if (consumptionLogs.isEmpty()) {
-            return 0.0;
-        }
-
-        double totalConsumption = consumptionLogs.stream()
-                .mapToDouble(log -> log.getQuantityConsumed() != null ? log.getQuantityConsumed() : 0.0)
-                .sum();
-
-        return totalConsumption / consumptionLogs.size();
-    }
-
-    private String determineTrend(Double adc7d, Double adc14d, Double adc30d) {
-        if (adc7d == null || adc14d == null || adc30d == null) {
-            return "STABLE";
-        }
-
-        double shortTermTrend = (adc7d - adc14d) / adc14d * 100;
-        double longTermTrend = (adc14d - adc30d) / adc30d * 100;
-
-        if (shortTermTrend > 10 && longTermTrend > 5) {
-            return "INCREASING";
-        } else if (shortTermTrend < -10 && longTermTrend < -5) {
-            return "DECREASING";
-        } else if (Math.abs(shortTermTrend) > 20) {
-            return "VOLATILE";
-        } else {
-            return "STABLE";
-        }
-    }
-
-    private Double calculateTrendConfidence(Double adc7d, Double adc14d, Double adc30d) {
-        if (adc7d == null || adc14d == null || adc30d == null) {
-            return 0.0;
-        }
-
-        double variance = Math.pow(adc7d - adc30d, 2) + Math.pow(adc14d - adc30d, 2);
-        double maxVariance = Math.pow(adc30d, 2) * 2;
-
-        return Math.max(0.0, Math.min(1.0, 1.0 - (variance / maxVariance)));
-    }
-
-    private Double calculateCoefficientOfVariation(List<DailyConsumptionLogDTO> consumptionLogs) {
-        if (consumptionLogs.size() < 2) {
-            return 0.0;
-        }
-
-        double mean = calculateADC(consumptionLogs);
-        if (mean == 0) {
-            return 0.0;
-        }
-
-        double stdDev = calculateStandardDeviation(consumptionLogs);
-        return (stdDev / mean) * 100;
-    }
-
-    private Double calculateStandardDeviation(List<DailyConsumptionLogDTO> consumptionLogs) {
-        if (consumptionLogs.size() < 2) {
-            return 0.0;
-        }
-
-        double mean = calculateADC(consumptionLogs);
-        double sumSquaredDiffs = consumptionLogs.stream()
-                .mapToDouble(log -> {
-                    double value = log.getQuantityConsumed() != null ? log.getQuantityConsumed() : 0.0;
-                    return Math.pow(value - mean, 2);
-                })
-                .sum();
-
-        return Math.sqrt(sumSquaredDiffs / (consumptionLogs.size() - 1));
-    }
-
     private ConsumptionProfileDTO convertToDto(ConsumptionProfile profile) {
         ConsumptionProfileDTO dto = new ConsumptionProfileDTO();
         BeanUtils.copyProperties(profile, dto);
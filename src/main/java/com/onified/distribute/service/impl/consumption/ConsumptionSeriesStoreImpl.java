@@ -0,0 +1,520 @@
+package com.onified.distribute.service.impl.consumption;
+
+import com.onified.distribute.config.ConsumptionSeriesConfig;
+import com.onified.distribute.entity.DailyConsumptionLog;
+import com.onified.distribute.event.ConsumptionLogChangedEvent;
+import com.onified.distribute.repository.DailyConsumptionLogRepository;
+import com.onified.distribute.service.consumption.ConsumptionSeriesStore;
+import com.onified.distribute.util.ConsumptionWindowStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Recent daily consumption of every product-location pair, held in memory. Product and location ids are
+ * interned to ints, and each pair owns a fixed run of retentionDays slots in flat int arrays, indexed by
+ * epoch day modulo the retention. Each slot carries the day it holds, so a slot from an older day simply
+ * stops matching and no clean-up pass is needed. Reads are array scans under a read lock, with no Mongo
+ * round trip and no per-row objects. Log ingest on this replica keeps the store current through
+ * ConsumptionLogChangedEvent; logs written on other replicas arrive with the full reload that follows the
+ * daily SAP sync, and reads fall back to Mongo once the last load is older than the staleness limit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConsumptionSeriesStoreImpl implements ConsumptionSeriesStore {
+
+    private final ConsumptionSeriesConfig consumptionSeriesConfig;
+    private final DailyConsumptionLogRepository dailyConsumptionLogRepository;
+    private final MongoTemplate mongoTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final Set<String> changedDuringLoad = new HashSet<>();
+    // Pairs whose reload is querying Mongo, mapped to whether they changed again meanwhile
+    private final Map<String, Boolean> pendingPairReloads = new HashMap<>();
+    private boolean loading;
+    private volatile Series series;
+
+    @Override
+    public boolean covers(int days) {
+        Series current = series;
+        if (current == null || days <= 0 || days > current.retentionDays) {
+            return false;
+        }
+        long maxAgeMillis = consumptionSeriesConfig.getMaxStalenessMinutes() * 60_000L;
+        return System.currentTimeMillis() - current.loadedAtMillis <= maxAgeMillis;
+    }
+
+    @Override
+    public double averageConsumption(String productId, String locationId, int days) {
+        lock.readLock().lock();
+        try {
+            Series current = series;
+            int pair = current != null ? current.findPair(productId, locationId) : -1;
+            if (pair < 0) {
+                return 0.0;
+            }
+            int today = (int) LocalDate.now().toEpochDay();
+            long total = 0;
+            long rows = 0;
+            for (int day = today - days + 1; day <= today; day++) {
+                int slot = current.slotOf(pair, day);
+                if (current.slotDays[slot] == day) {
+                    total += current.slotTotals[slot];
+                    rows += current.slotCounts[slot];
+                }
+            }
+            return rows <= 0 ? 0.0 : (double) total / rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long totalConsumption(String productId, String locationId, int days) {
+        lock.readLock().lock();
+        try {
+            Series current = series;
+            int pair = current != null ? current.findPair(productId, locationId) : -1;
+            if (pair < 0) {
+                return 0L;
+            }
+            int today = (int) LocalDate.now().toEpochDay();
+            long total = 0;
+            for (int day = today - days + 1; day <= today; day++) {
+                int slot = current.slotOf(pair, day);
+                if (current.slotDays[slot] == day) {
+                    total += current.slotTotals[slot];
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Integer> dayTotalsByProduct(String locationId, LocalDate day) {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> totals = new HashMap<>();
+            Series current = series;
+            Integer location = current != null ? current.locationKeys.get(locationId) : null;
+            if (location == null) {
+                return totals;
+            }
+            int epochDay = (int) day.toEpochDay();
+            int[] pairs = current.locationPairs[location];
+            for (int i = 0; i < current.locationPairCounts[location]; i++) {
+                int pair = pairs[i];
+                int slot = current.slotOf(pair, epochDay);
+                if (current.slotDays[slot] == epochDay && current.slotCounts[slot] > 0) {
+                    totals.put(current.productIds.get(current.pairProducts[pair]), current.slotTotals[slot]);
+                }
+            }
+            return totals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the retention window from Mongo into a fresh store and swaps it in. Pairs that changed while the
+     * scan ran are then reloaded on their own, as the scan may or may not have seen those rows.
+     */
+    @Override
+    public void reload() {
+        reloadLock.lock();
+        try {
+            int retentionDays = consumptionSeriesConfig.getRetentionDays();
+            Series loaded = new Series(retentionDays, consumptionSeriesConfig.getInitialPairCapacity());
+            LocalDate today = LocalDate.now();
+
+            lock.writeLock().lock();
+            try {
+                changedDuringLoad.clear();
+                loading = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                Query query = Query.query(Criteria.where("consumptionDate")
+                        .gte(today.minusDays(retentionDays - 1L).atStartOfDay()));
+                query.fields().include("productId", "locationId", "consumptionDate", "quantityConsumed");
+                long rows = 0;
+                try (Stream<DailyConsumptionLog> logs = mongoTemplate.stream(query, DailyConsumptionLog.class)) {
+                    Iterator<DailyConsumptionLog> iterator = logs.iterator();
+                    while (iterator.hasNext()) {
+                        loaded.addLog(iterator.next(), 1);
+                        rows++;
+                    }
+                }
+
+                List<String> changed;
+                lock.writeLock().lock();
+                try {
+                    loaded.loadedAtMillis = System.currentTimeMillis();
+                    series = loaded;
+                    loading = false;
+                    changed = new ArrayList<>(changedDuringLoad);
+                    changedDuringLoad.clear();
+                    pendingPairReloads.clear();
+                    changed.forEach(key -> pendingPairReloads.put(key, false));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                for (String key : changed) {
+                    int separator = key.indexOf('|');
+                    reloadPair(key.substring(0, separator), key.substring(separator + 1));
+                }
+                log.info("Loaded {} consumption rows for {} product-location pairs over {} days",
+                        rows, loaded.pairCount, retentionDays);
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    loading = false;
+                    changedDuringLoad.clear();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    /**
+     * Logs written on other replicas only reach this store through a reload, so the jobs that depend on
+     * them call this after the SAP sync instead of the store rescanning the window on a timer
+     */
+    @Override
+    public void refresh() {
+        if (!Boolean.TRUE.equals(consumptionSeriesConfig.getEnabled())) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            // Once the last load is older than the staleness limit covers() turns false and reads go to Mongo
+            log.error("Error loading consumption series: {}", e.getMessage(), e);
+        }
+    }
+
+    @EventListener
+    public void onConsumptionLogChanged(ConsumptionLogChangedEvent event) {
+        if (event.getProductId() == null || event.getLocationId() == null || event.getConsumptionDate() == null) {
+            return;
+        }
+        String key = event.getProductId() + "|" + event.getLocationId();
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                // The swap reloads this pair after the scan, which is certain to include the row
+                changedDuringLoad.add(key);
+                return;
+            }
+            if (series == null) {
+                return;
+            }
+            if (pendingPairReloads.containsKey(key)) {
+                // A reload of this pair is querying Mongo and may have missed the row, so it queries again
+                pendingPairReloads.put(key, true);
+                return;
+            }
+            int pair = series.pairFor(event.getProductId(), event.getLocationId());
+            long countedUpTo = Math.max(series.loadedAtMillis, series.pairReloadedAt[pair]);
+            if (event.getChangedAt() == null
+                    || ConsumptionWindowStats.toEpochMillis(event.getChangedAt()) <= countedUpTo) {
+                // Written before the last read of this pair finished, so that read may already have counted it
+                pendingPairReloads.put(key, false);
+            } else {
+                int quantity = event.getQuantityConsumed() != null ? event.getQuantityConsumed() : 0;
+                int day = (int) event.getConsumptionDate().toLocalDate().toEpochDay();
+                if (event.isRemoved()) {
+                    series.add(pair, day, -quantity, -1);
+                } else {
+                    series.add(pair, day, quantity, 1);
+                }
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reloadPair(event.getProductId(), event.getLocationId());
+    }
+
+    /**
+     * Replaces one pair's slots with its rows from Mongo. The query runs outside the lock; when the pair
+     * changes again meanwhile the query is repeated, and when a full reload swaps the store the result is
+     * dropped, as the new store already covers the pair. The caller has registered the pair as pending.
+     */
+    private void reloadPair(String productId, String locationId) {
+        String key = productId + "|" + locationId;
+        while (true) {
+            Series target = series;
+            if (target == null) {
+                return;
+            }
+            List<DailyConsumptionLog> rows;
+            try {
+                rows = dailyConsumptionLogRepository.findConsumptionQuantitiesSince(productId, locationId,
+                        LocalDate.now().minusDays(target.retentionDays - 1L).atStartOfDay());
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    if (series == target) {
+                        pendingPairReloads.remove(key);
+                        // Until the next full reload the pair is served from Mongo
+                        series = null;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            long queriedAt = System.currentTimeMillis();
+
+            lock.writeLock().lock();
+            try {
+                if (series != target) {
+                    return;
+                }
+                if (Boolean.TRUE.equals(pendingPairReloads.get(key))) {
+                    pendingPairReloads.put(key, false);
+                    continue;
+                }
+                int pair = target.pairFor(productId, locationId);
+                target.clearPair(pair);
+                for (DailyConsumptionLog consumptionLog : rows) {
+                    consumptionLog.setProductId(productId);
+                    consumptionLog.setLocationId(locationId);
+                    target.addLog(consumptionLog, 1);
+                }
+                target.pairReloadedAt[pair] = queriedAt;
+                pendingPairReloads.remove(key);
+                return;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * The arrays behind the store. Slot s of pair p is at p * retentionDays + s.
+     */
+    private static final class Series {
+        private static final int EMPTY_DAY = Integer.MIN_VALUE;
+
+        private final int retentionDays;
+        private final Map<String, Integer> productKeys = new HashMap<>();
+        private final List<String> productIds = new ArrayList<>();
+        private final Map<String, Integer> locationKeys = new HashMap<>();
+        private final PairIndex pairIndex;
+        private long loadedAtMillis;
+
+        private int pairCount;
+        private int[] pairProducts;
+        private long[] pairReloadedAt;
+        private int[] slotDays;
+        private int[] slotTotals;
+        private int[] slotCounts;
+        private int[][] locationPairs = new int[16][];
+        private int[] locationPairCounts = new int[16];
+
+        private Series(int retentionDays, int pairCapacity) {
+            this.retentionDays = retentionDays;
+            this.pairIndex = new PairIndex(pairCapacity);
+            allocate(Math.max(pairCapacity, 16));
+        }
+
+        private int slotOf(int pair, int day) {
+            return pair * retentionDays + Math.floorMod(day, retentionDays);
+        }
+
+        private int findPair(String productId, String locationId) {
+            Integer product = productKeys.get(productId);
+            Integer location = locationKeys.get(locationId);
+            if (product == null || location == null) {
+                return -1;
+            }
+            return pairIndex.get(pairKey(product, location));
+        }
+
+        private int pairFor(String productId, String locationId) {
+            int product = productKeys.computeIfAbsent(productId, id -> {
+                productIds.add(id);
+                return productIds.size() - 1;
+            });
+            int location = locationKeys.computeIfAbsent(locationId, id -> locationKeys.size());
+            long key = pairKey(product, location);
+            int pair = pairIndex.get(key);
+            if (pair >= 0) {
+                return pair;
+            }
+
+            if (pairCount == pairProducts.length) {
+                allocate(pairCount * 2);
+            }
+            pair = pairCount++;
+            pairProducts[pair] = product;
+            pairIndex.put(key, pair);
+            addLocationPair(location, pair);
+            return pair;
+        }
+
+        private void addLog(DailyConsumptionLog consumptionLog, int rows) {
+            if (consumptionLog.getProductId() == null || consumptionLog.getLocationId() == null
+                    || consumptionLog.getConsumptionDate() == null) {
+                return;
+            }
+            int pair = pairFor(consumptionLog.getProductId(), consumptionLog.getLocationId());
+            int quantity = consumptionLog.getQuantityConsumed() != null ? consumptionLog.getQuantityConsumed() : 0;
+            add(pair, (int) consumptionLog.getConsumptionDate().toLocalDate().toEpochDay(), quantity * rows, rows);
+        }
+
+        /**
+         * Adds to the day's slot, taking the slot over if it still holds an older day. Rows older than the
+         * slot's current day are outside the retention and dropped.
+         */
+        private void add(int pair, int day, int quantity, int rows) {
+            int slot = slotOf(pair, day);
+            if (slotDays[slot] != day) {
+                if (rows < 0 || slotDays[slot] > day) {
+                    return;
+                }
+                slotDays[slot] = day;
+                slotTotals[slot] = 0;
+                slotCounts[slot] = 0;
+            }
+            slotTotals[slot] += quantity;
+            slotCounts[slot] += rows;
+        }
+
+        private void clearPair(int pair) {
+            int from = pair * retentionDays;
+            Arrays.fill(slotDays, from, from + retentionDays, EMPTY_DAY);
+        }
+
+        private void addLocationPair(int location, int pair) {
+            if (location >= locationPairs.length) {
+                int size = Math.max(location + 1, locationPairs.length * 2);
+                locationPairs = Arrays.copyOf(locationPairs, size);
+                locationPairCounts = Arrays.copyOf(locationPairCounts, size);
+            }
+            int[] pairs = locationPairs[location];
+            int count = locationPairCounts[location];
+            if (pairs == null) {
+                pairs = new int[8];
+            } else if (count == pairs.length) {
+                pairs = Arrays.copyOf(pairs, count * 2);
+            }
+            pairs[count] = pair;
+            locationPairs[location] = pairs;
+            locationPairCounts[location] = count + 1;
+        }
+
+        private void allocate(int pairCapacity) {
+            int oldPairs = pairProducts == null ? 0 : pairProducts.length;
+            pairProducts = pairProducts == null ? new int[pairCapacity] : Arrays.copyOf(pairProducts, pairCapacity);
+            pairReloadedAt = pairReloadedAt == null ? new long[pairCapacity] : Arrays.copyOf(pairReloadedAt, pairCapacity);
+            int slots = pairCapacity * retentionDays;
+            slotDays = slotDays == null ? new int[slots] : Arrays.copyOf(slotDays, slots);
+            Arrays.fill(slotDays, oldPairs * retentionDays, slots, EMPTY_DAY);
+            slotTotals = slotTotals == null ? new int[slots] : Arrays.copyOf(slotTotals, slots);
+            slotCounts = slotCounts == null ? new int[slots] : Arrays.copyOf(slotCounts, slots);
+        }
+
+        private static long pairKey(int product, int location) {
+            return ((long) product << 32) | (location & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Open-addressing map from a packed (product, location) key to a pair number, without boxing
+     */
+    private static final class PairIndex {
+        private static final long FREE = -1L;
+
+        private long[] keys;
+        private int[] values;
+        private int size;
+
+        private PairIndex(int expectedPairs) {
+            int capacity = Integer.highestOneBit(Math.max(expectedPairs, 16) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, FREE);
+        }
+
+        private int get(long key) {
+            int mask = keys.length - 1;
+            for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+                if (keys[index] == key) {
+                    return values[index];
+                }
+                if (keys[index] == FREE) {
+                    return -1;
+                }
+            }
+        }
+
+        private void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int index = hash(key) & mask;
+            while (keys[index] != FREE && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            if (keys[index] == FREE) {
+                size++;
+            }
+            keys[index] = key;
+            values[index] = value;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, FREE);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ (mixed >>> 32));
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.onified.distribute.service.impl.consumption;
+
+import com.onified.distribute.config.ConsumptionProfileConfig;
+import com.onified.distribute.entity.ConsumptionWindowState;
+import com.onified.distribute.entity.DailyConsumptionLog;
+import com.onified.distribute.event.ConsumptionLogChangedEvent;
+import com.onified.distribute.repository.ConsumptionWindowStateRepository;
+import com.onified.distribute.repository.DailyConsumptionLogRepository;
+import com.onified.distribute.service.consumption.ConsumptionWindowService;
+import com.onified.distribute.service.job.PartitionLeaseService;
+import com.onified.distribute.util.ConsumptionWindowStats;
+import com.onified.distribute.util.RollingConsumptionWindow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Rolling per-pair consumption windows kept in consumption_window_state. Each ingested log row is applied as
+ * a delta with a version check. A pair without state, or one whose state a recompute may already have built
+ * from the row, is rebuilt from its own last 60 days of logs instead, as is any pair whose delta loses a
+ * version race. The periodic recompute rebuilds whole locations to correct drift.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConsumptionWindowServiceImpl implements ConsumptionWindowService {
+
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    /**
+     * Clock skew allowed when deciding whether a recompute on another replica may have seen a log row
+     */
+    private static final long PEER_CLOCK_SKEW_SECONDS = 5;
+
+    private final ConsumptionWindowStateRepository consumptionWindowStateRepository;
+    private final DailyConsumptionLogRepository dailyConsumptionLogRepository;
+    private final ConsumptionProfileConfig consumptionProfileConfig;
+    private final MongoTemplate mongoTemplate;
+    private final PartitionLeaseService partitionLeaseService;
+
+    @EventListener
+    public void onConsumptionLogChanged(ConsumptionLogChangedEvent event) {
+        if (!Boolean.TRUE.equals(consumptionProfileConfig.getIncrementalEnabled())
+                || event.getProductId() == null || event.getLocationId() == null || event.getConsumptionDate() == null) {
+            return;
+        }
+        try {
+            applyLogChange(event);
+        } catch (Exception e) {
+            // The log write already happened; the next recompute picks the row up
+            log.error("Error applying consumption log change for product: {} at location: {}: {}",
+                    event.getProductId(), event.getLocationId(), e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void applyLogChange(ConsumptionLogChangedEvent event) {
+        String id = ConsumptionWindowState.idOf(event.getProductId(), event.getLocationId());
+        ConsumptionWindowState state = consumptionWindowStateRepository.findById(id).orElse(null);
+        if (state == null || mayAlreadyInclude(state, event.getChangedAt())) {
+            rebuildPair(event.getProductId(), event.getLocationId());
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        RollingConsumptionWindow window = toWindow(state);
+        window.advanceTo(today);
+        double quantity = event.getQuantityConsumed() != null ? event.getQuantityConsumed() : 0.0;
+        LocalDate day = dayOf(event.getConsumptionDate(), today);
+        if (event.isRemoved()) {
+            window.remove(day, quantity);
+        } else {
+            window.add(day, quantity);
+        }
+
+        Long expectedVersion = state.getVersion();
+        copyWindow(window, state);
+        state.setUpdatedAt(LocalDateTime.now());
+        if (!consumptionWindowStateRepository.saveIfVersion(state, expectedVersion)) {
+            // Re-applying the delta on the winner's state could count the row twice; the logs already hold it
+            rebuildPair(event.getProductId(), event.getLocationId());
+        }
+    }
+
+    @Override
+    public ConsumptionWindowStats getWindowStats(String productId, String locationId) {
+        if (!Boolean.TRUE.equals(consumptionProfileConfig.getIncrementalEnabled())) {
+            return null;
+        }
+        RollingConsumptionWindow window = consumptionWindowStateRepository
+                .findById(ConsumptionWindowState.idOf(productId, locationId))
+                .map(this::toWindow)
+                .orElseGet(() -> rebuildPair(productId, locationId));
+        window.advanceTo(LocalDate.now());
+        return window.toStats();
+    }
+
+    /**
+     * Rebuilds the windows of every pair with logs at the given locations (all locations when null) in one
+     * streamed scan. States changed by ingest during the scan keep their newer value, and states of pairs
+     * with no logs left in the window are removed.
+     */
+    @Override
+    public void recompute(Collection<String> locationIds) {
+        LocalDate today = LocalDate.now();
+        Map<String, Long> expectedVersions = consumptionWindowStateRepository.findVersions(locationIds);
+
+        Criteria criteria = Criteria.where("consumptionDate").gte(windowStart(today));
+        if (locationIds != null) {
+            criteria.and("locationId").in(locationIds);
+        }
+        Query query = Query.query(criteria);
+        query.fields().include("productId", "locationId", "consumptionDate", "quantityConsumed");
+
+        Map<String, ConsumptionWindowState> states = new HashMap<>();
+        Map<String, RollingConsumptionWindow> windows = new HashMap<>();
+        try (Stream<DailyConsumptionLog> logs = mongoTemplate.stream(query, DailyConsumptionLog.class)) {
+            Iterator<DailyConsumptionLog> iterator = logs.iterator();
+            while (iterator.hasNext()) {
+                DailyConsumptionLog consumptionLog = iterator.next();
+                String id = ConsumptionWindowState.idOf(consumptionLog.getProductId(), consumptionLog.getLocationId());
+                RollingConsumptionWindow window = windows.computeIfAbsent(id, key -> {
+                    states.put(key, newState(consumptionLog.getProductId(), consumptionLog.getLocationId()));
+                    return new RollingConsumptionWindow(today);
+                });
+                addLog(window, consumptionLog, today);
+            }
+        }
+
+        // Taken after the scan, so ingest of any row the scan may have seen compares against this
+        LocalDateTime recomputedAt = recomputeStamp();
+        int batchSize = consumptionProfileConfig.getWriteBatchSize();
+        List<ConsumptionWindowState> batch = new ArrayList<>(batchSize);
+        int skipped = 0;
+        for (Map.Entry<String, ConsumptionWindowState> entry : states.entrySet()) {
+            ConsumptionWindowState state = entry.getValue();
+            copyWindow(windows.get(entry.getKey()), state);
+            state.setRecomputedAt(recomputedAt);
+            state.setRecomputedBy(partitionLeaseService.getMemberId());
+            state.setUpdatedAt(recomputedAt);
+            batch.add(state);
+            if (batch.size() >= batchSize) {
+                skipped += consumptionWindowStateRepository.bulkReplaceIfVersion(batch, expectedVersions);
+                batch.clear();
+            }
+        }
+        skipped += consumptionWindowStateRepository.bulkReplaceIfVersion(batch, expectedVersions);
+        long removed = consumptionWindowStateRepository.deleteNotRecomputedWithoutLogs(locationIds, recomputedAt,
+                windowStart(today));
+
+        log.info("Recomputed {} consumption windows ({} changed by ingest meanwhile, {} without recent logs removed)",
+                states.size() - skipped, skipped, removed);
+    }
+
+    /**
+     * Builds the windows for every location once when the state collection is empty, one location at a time
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (!Boolean.TRUE.equals(consumptionProfileConfig.getIncrementalEnabled())) {
+            return;
+        }
+        try {
+            if (consumptionWindowStateRepository.count() > 0) {
+                return;
+            }
+            List<String> locationIds = mongoTemplate.findDistinct(
+                    Query.query(Criteria.where("consumptionDate").gte(windowStart(LocalDate.now()))),
+                    "locationId", DailyConsumptionLog.class, String.class);
+            log.info("Building consumption windows for {} locations", locationIds.size());
+            for (String locationId : locationIds) {
+                recompute(List.of(locationId));
+            }
+        } catch (Exception e) {
+            log.error("Error building consumption windows: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rebuilds one pair from its logs and stores it unless another writer keeps winning, in which case the
+     * freshly built window is still returned for reading
+     */
+    private RollingConsumptionWindow rebuildPair(String productId, String locationId) {
+        String id = ConsumptionWindowState.idOf(productId, locationId);
+        RollingConsumptionWindow window = null;
+        for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+            Long expectedVersion = consumptionWindowStateRepository.findById(id)
+                    .map(ConsumptionWindowState::getVersion)
+                    .orElse(null);
+
+            LocalDate today = LocalDate.now();
+            window = new RollingConsumptionWindow(today);
+            for (DailyConsumptionLog consumptionLog : dailyConsumptionLogRepository.findConsumptionQuantitiesSince(
+                    productId, locationId, windowStart(today))) {
+                addLog(window, consumptionLog, today);
+            }
+
+            ConsumptionWindowState state = newState(productId, locationId);
+            copyWindow(window, state);
+            state.setRecomputedAt(recomputeStamp());
+            state.setRecomputedBy(partitionLeaseService.getMemberId());
+            state.setUpdatedAt(state.getRecomputedAt());
+            if (consumptionWindowStateRepository.saveIfVersion(state, expectedVersion)) {
+                return window;
+            }
+        }
+        log.warn("Consumption window for product: {} at location: {} kept changing during rebuild", productId, locationId);
+        return window;
+    }
+
+    /**
+     * A recompute finishing its scan after the row's write started may or may not have seen the row
+     */
+    private boolean mayAlreadyInclude(ConsumptionWindowState state, LocalDateTime changedAt) {
+        if (changedAt == null) {
+            return true;
+        }
+        if (state.getRecomputedAt() == null) {
+            return false;
+        }
+        long skewSeconds = partitionLeaseService.getMemberId().equals(state.getRecomputedBy()) ? 0 : PEER_CLOCK_SKEW_SECONDS;
+        return !state.getRecomputedAt().isBefore(changedAt.minusSeconds(skewSeconds));
+    }
+
+    /**
+     * Now, rounded up to the millisecond precision Mongo stores, so the stamp never reads as earlier than it was
+     */
+    private static LocalDateTime recomputeStamp() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS).plus(1, ChronoUnit.MILLIS);
+    }
+
+    private static void addLog(RollingConsumptionWindow window, DailyConsumptionLog consumptionLog, LocalDate today) {
+        if (consumptionLog.getConsumptionDate() == null) {
+            return;
+        }
+        double quantity = consumptionLog.getQuantityConsumed() != null ? consumptionLog.getQuantityConsumed() : 0.0;
+        window.add(dayOf(consumptionLog.getConsumptionDate(), today), quantity);
+    }
+
+    /**
+     * Future-dated rows count as today, as they fall inside every window of the log queries
+     */
+    private static LocalDate dayOf(LocalDateTime consumptionDate, LocalDate today) {
+        LocalDate day = consumptionDate.toLocalDate();
+        return day.isAfter(today) ? today : day;
+    }
+
+    private static LocalDateTime windowStart(LocalDate today) {
+        return today.minusDays(RollingConsumptionWindow.CAPACITY_DAYS - 1L).atStartOfDay();
+    }
+
+    private static ConsumptionWindowState newState(String productId, String locationId) {
+        ConsumptionWindowState state = new ConsumptionWindowState();
+        state.setId(ConsumptionWindowState.idOf(productId, locationId));
+        state.setProductId(productId);
+        state.setLocationId(locationId);
+        return state;
+    }
+
+    private RollingConsumptionWindow toWindow(ConsumptionWindowState state) {
+        return new RollingConsumptionWindow(state.getAnchorDay().toEpochDay(), state.getDailyTotals(),
+                state.getDailyCounts(), state.getDailySquares(), state.getWindowSums(), state.getWindowCounts(),
+                state.getDeviationSquares() != null ? state.getDeviationSquares() : 0.0);
+    }
+
+    private static void copyWindow(RollingConsumptionWindow window, ConsumptionWindowState state) {
+        state.setAnchorDay(window.getAnchorDay());
+        state.setDailyTotals(window.getDailyTotals());
+        state.setDailyCounts(window.getDailyCounts());
+        state.setDailySquares(window.getDailySquares());
+        state.setWindowSums(window.getWindowSums());
+        state.setWindowCounts(window.getWindowCounts());
+        state.setDeviationSquares(window.getDeviationSquares());
+    }
+}
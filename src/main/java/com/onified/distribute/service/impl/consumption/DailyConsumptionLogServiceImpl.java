@@ -1,15 +1,21 @@
 package com.onified.distribute.service.impl.consumption;
 
+import com.onified.distribute.dto.CursorSliceDTO;
 import com.onified.distribute.dto.DailyConsumptionLogDTO;
 import com.onified.distribute.entity.DailyConsumptionLog;
+import com.onified.distribute.event.BufferInputChangedEvent;
+import com.onified.distribute.event.ConsumptionLogChangedEvent;
 import com.onified.distribute.repository.DailyConsumptionLogRepository;
+import com.onified.distribute.service.consumption.ConsumptionSeriesStore;
 import com.onified.distribute.service.consumption.DailyConsumptionLogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +31,8 @@ import java.util.stream.Collectors;
 public class DailyConsumptionLogServiceImpl implements DailyConsumptionLogService {
 
     private final DailyConsumptionLogRepository dailyConsumptionLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConsumptionSeriesStore consumptionSeriesStore;
 
     @Override
     public DailyConsumptionLogDTO createDailyConsumptionLog(DailyConsumptionLogDTO logDto) {
@@ -41,6 +49,8 @@ public class DailyConsumptionLogServiceImpl implements DailyConsumptionLogServic
         consumptionLog.setCreatedAt(LocalDateTime.now());
         
         DailyConsumptionLog savedLog = dailyConsumptionLogRepository.save(consumptionLog);
+        publishConsumptionChanged(savedLog);
+        publishLogChanged(savedLog, false, consumptionLog.getCreatedAt());
         return convertToDto(savedLog);
     }
 
@@ -51,9 +61,15 @@ public class DailyConsumptionLogServiceImpl implements DailyConsumptionLogServic
         DailyConsumptionLog existingLog = dailyConsumptionLogRepository.findById(logId)
                 .orElseThrow(() -> new IllegalArgumentException("Daily consumption log not found with ID: " + logId));
         
+        DailyConsumptionLog previousLog = new DailyConsumptionLog();
+        BeanUtils.copyProperties(existingLog, previousLog);
         BeanUtils.copyProperties(logDto, existingLog, "id", "logId", "createdAt");
         
+        LocalDateTime changedAt = LocalDateTime.now();
         DailyConsumptionLog savedLog = dailyConsumptionLogRepository.save(existingLog);
+        publishConsumptionChanged(savedLog);
+        publishLogChanged(previousLog, true, changedAt);
+        publishLogChanged(savedLog, false, changedAt);
         return convertToDto(savedLog);
     }
 
@@ -75,6 +91,13 @@ public class DailyConsumptionLogServiceImpl implements DailyConsumptionLogServic
         return dailyConsumptionLogRepository.findAll(pageable).map(this::convertToDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSliceDTO<DailyConsumptionLogDTO> getDailyConsumptionLogsAfter(Sort.Order order, String after, int size) {
+        log.info("Fetching daily consumption logs after cursor, size: {}", size);
+        return dailyConsumptionLogRepository.findSliceAfter(order, after, size).map(this::convertToDto);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<DailyConsumptionLogDTO> getDailyConsumptionLogsByProduct(String productId, Pageable pageable) {
@@ -152,6 +175,10 @@ public class DailyConsumptionLogServiceImpl implements DailyConsumptionLogServic
         log.info("Calculating average consumption for {} days for product: {} at location: {}",
                 days, productId, locationId);
         
+        if (consumptionSeriesStore.covers(days)) {
+            return consumptionSeriesStore.averageConsumption(productId, locationId, days);
+        }
+        
         List<DailyConsumptionLogDTO> recentConsumption = getRecentConsumption(productId, locationId, days);
         
         if (recentConsumption.isEmpty()) {
@@ -171,6 +198,10 @@ public class DailyConsumptionLogServiceImpl implements DailyConsumptionLogServic
         log.info("Calculating total consumption for {} days for product: {} at location: {}",
                 days, productId, locationId);
         
+        if (consumptionSeriesStore.covers(days)) {
+            return (double) consumptionSeriesStore.totalConsumption(productId, locationId, days);
+        }
+        
         List<DailyConsumptionLogDTO> recentConsumption = getRecentConsumption(productId, locationId, days);
         
         return recentConsumption.stream()
@@ -188,11 +219,13 @@ public class DailyConsumptionLogServiceImpl implements DailyConsumptionLogServic
     public void deleteDailyConsumptionLog(String logId) {
         log.info("Deleting daily consumption log: {}", logId);
         
-        if (!dailyConsumptionLogRepository.existsById(logId)) {
-            throw new IllegalArgumentException("Daily consumption log not found with ID: " + logId);
-        }
-        
+        DailyConsumptionLog existingLog = dailyConsumptionLogRepository.findById(logId)
+                .orElseThrow(() -> new IllegalArgumentException("Daily consumption log not found with ID: " + logId));
+
+        LocalDateTime changedAt = LocalDateTime.now();
         dailyConsumptionLogRepository.deleteById(logId);
+        publishConsumptionChanged(existingLog);
+        publishLogChanged(existingLog, true, changedAt);
     }
 
     @Override
@@ -202,6 +235,17 @@ public class DailyConsumptionLogServiceImpl implements DailyConsumptionLogServic
                 productId, locationId, consumptionDate);
     }
 
+    private void publishConsumptionChanged(DailyConsumptionLog consumptionLog) {
+        eventPublisher.publishEvent(new BufferInputChangedEvent(
+                consumptionLog.getProductId(), consumptionLog.getLocationId(), "DAILY_CONSUMPTION_LOG"));
+    }
+
+    private void publishLogChanged(DailyConsumptionLog consumptionLog, boolean removed, LocalDateTime changedAt) {
+        eventPublisher.publishEvent(new ConsumptionLogChangedEvent(consumptionLog.getProductId(),
+                consumptionLog.getLocationId(), consumptionLog.getConsumptionDate(),
+                consumptionLog.getQuantityConsumed(), removed, changedAt));
+    }
+
     private DailyConsumptionLogDTO convertToDto(DailyConsumptionLog log) {
         DailyConsumptionLogDTO dto = new DailyConsumptionLogDTO();
         // Map fields (e.g., using BeanUtils.copyProperties or manual mapping)
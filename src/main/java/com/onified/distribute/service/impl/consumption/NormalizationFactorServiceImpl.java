@@ -0,0 +1,33 @@
+package com.onified.distribute.service.impl.consumption;
+
+import com.onified.distribute.entity.SeasonalityAdjustment;
+import com.onified.distribute.entity.SpecialEvent;
+import com.onified.distribute.repository.SeasonalityAdjustmentRepository;
+import com.onified.distribute.repository.SpecialEventRepository;
+import com.onified.distribute.service.consumption.NormalizationFactorService;
+import com.onified.distribute.util.NormalizationFactorTable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NormalizationFactorServiceImpl implements NormalizationFactorService {
+
+    private final SeasonalityAdjustmentRepository seasonalityAdjustmentRepository;
+    private final SpecialEventRepository specialEventRepository;
+
+    @Override
+    public NormalizationFactorTable loadFactorTable(ZonedDateTime now) {
+        List<SeasonalityAdjustment> adjustments = seasonalityAdjustmentRepository.findActivePairFactors();
+        List<SpecialEvent> events = specialEventRepository.findCurrentPairEventFactors(now.toLocalDateTime());
+        NormalizationFactorTable table = NormalizationFactorTable.of(adjustments, events, now.getYear(), now.getMonthValue());
+        log.info("Loaded normalization factors: {} seasonality rows over {} pairs, {} current events over {} pairs",
+                adjustments.size(), table.getPairCount(), events.size(), table.getEventPairCount());
+        return table;
+    }
+}
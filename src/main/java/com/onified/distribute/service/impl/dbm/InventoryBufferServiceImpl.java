@@ -1,21 +1,35 @@
 package com.onified.distribute.service.impl.dbm;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onified.distribute.dto.CursorSliceDTO;
 import com.onified.distribute.dto.InventoryBufferDTO;
 import com.onified.distribute.entity.InventoryBuffer;
 import com.onified.distribute.repository.InventoryBufferRepository;
+import com.onified.distribute.repository.LocationRepository;
+import com.onified.distribute.repository.ProductRepository;
 import com.onified.distribute.service.dbm.BufferAdjustmentLogService;
 import com.onified.distribute.service.dbm.InventoryBufferService;
+import com.onified.distribute.util.ExportFormat;
+import com.onified.distribute.util.RowExportWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -25,6 +39,13 @@ public class InventoryBufferServiceImpl implements InventoryBufferService {
 
     private final InventoryBufferRepository inventoryBufferRepository;
     private final BufferAdjustmentLogService bufferAdjustmentLogService;
+    private final ProductRepository productRepository;
+    private final LocationRepository locationRepository;
+    private final ObjectMapper objectMapper;
+
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final TypeReference<Map<String, Object>> EXPORT_ROW_TYPE = new TypeReference<>() {
+    };
 
     @Override
     public InventoryBufferDTO getBufferByProductAndLocation(String productId, String locationId) {
@@ -112,6 +133,56 @@ public class InventoryBufferServiceImpl implements InventoryBufferService {
         return inventoryBufferRepository.findAll(pageable).map(this::convertToDto);
     }
 
+    /**
+     * Write every buffer to the stream off a Mongo cursor, adding product and location names resolved with
+     * one $in query each per chunk, so memory holds one chunk regardless of the buffer count
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportInventoryBuffers(ExportFormat format, OutputStream out) {
+        RowExportWriter writer = new RowExportWriter(objectMapper, format, out);
+        try (Stream<InventoryBuffer> buffers = inventoryBufferRepository.streamAll()) {
+            Iterator<InventoryBuffer> iterator = buffers.iterator();
+            List<InventoryBuffer> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() >= EXPORT_CHUNK_SIZE || !iterator.hasNext()) {
+                    writeExportChunk(writer, chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported {} inventory buffers as {}", writer.getRowCount(), format);
+        return writer.getRowCount();
+    }
+
+    private void writeExportChunk(RowExportWriter writer, List<InventoryBuffer> chunk) {
+        List<String> productIds = chunk.stream().map(InventoryBuffer::getProductId).distinct().collect(Collectors.toList());
+        List<String> locationIds = chunk.stream().map(InventoryBuffer::getLocationId).distinct().collect(Collectors.toList());
+        Map<String, String> productNames = new HashMap<>();
+        Map<String, String> locationNames = new HashMap<>();
+        productRepository.findByProductIdIn(productIds)
+                .forEach(product -> productNames.putIfAbsent(product.getProductId(), product.getName()));
+        locationRepository.findByLocationIdIn(locationIds)
+                .forEach(location -> locationNames.putIfAbsent(location.getLocationId(), location.getName()));
+
+        for (InventoryBuffer buffer : chunk) {
+            Map<String, Object> row = objectMapper.convertValue(convertToDto(buffer), EXPORT_ROW_TYPE);
+            row.put("productName", productNames.get(buffer.getProductId()));
+            row.put("locationName", locationNames.get(buffer.getLocationId()));
+            writer.writeRow(row);
+        }
+        writer.flush();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSliceDTO<InventoryBufferDTO> getInventoryBuffersAfter(Sort.Order order, String after, int size) {
+        log.info("Fetching inventory buffers after cursor, size: {}", size);
+        return inventoryBufferRepository.findSliceAfter(order, after, size).map(this::convertToDto);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<InventoryBufferDTO> getInventoryBuffersByProduct(String productId, Pageable pageable) {
@@ -0,0 +1,181 @@
+package com.onified.distribute.service.impl.job;
+
+import com.onified.distribute.dto.JobRunDTO;
+import com.onified.distribute.entity.JobRun;
+import com.onified.distribute.exception.ResourceNotFoundException;
+import com.onified.distribute.repository.JobRunRepository;
+import com.onified.distribute.service.job.JobRunService;
+import com.onified.distribute.util.CronSchedule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobRunServiceImpl implements JobRunService {
+
+    private final JobRunRepository jobRunRepository;
+
+    private static final List<String> UNFINISHED_STAGES = Arrays.asList(JobRun.STAGE_RUNNING, JobRun.STAGE_FAILED);
+
+    @Override
+    public JobRun startOrResume(String jobName, String cron) {
+        Optional<JobRun> unfinished = jobRunRepository.findFirstByJobNameAndStageInOrderByStartedAtDesc(jobName, UNFINISHED_STAGES);
+
+        if (unfinished.isPresent()) {
+            JobRun previous = unfinished.get();
+            if (startedByLatestTrigger(previous, cron)) {
+                // Replicas firing the same trigger join the same run
+                return join(previous, jobName);
+            }
+
+            // The run belongs to an earlier trigger; its completed locations are stale for this one
+            jobRunRepository.finishRun(previous.getRunId(), JobRun.STAGE_ABANDONED, previous.getErrorMessage(),
+                    LocalDateTime.now(), null);
+            log.warn("Abandoned stale {} run {} started at {}", jobName, previous.getRunId(), previous.getStartedAt());
+        }
+
+        JobRun run = new JobRun();
+        run.setRunId("RUN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        run.setJobName(jobName);
+        run.setStage(JobRun.STAGE_RUNNING);
+        run.setCompletedLocationIds(new ArrayList<>());
+        run.setProcessedCount(0L);
+        run.setUpdatedCount(0L);
+        run.setErrorCount(0L);
+        run.setResumeCount(0);
+        run.setStartedAt(LocalDateTime.now());
+        try {
+            JobRun savedRun = jobRunRepository.save(run);
+            log.info("Started {} run {}", jobName, savedRun.getRunId());
+            return savedRun;
+        } catch (DuplicateKeyException e) {
+            // Another replica started the run first; only one RUNNING run per job is allowed
+            JobRun existing = jobRunRepository.findFirstByJobNameAndStageInOrderByStartedAtDesc(
+                            jobName, Collections.singletonList(JobRun.STAGE_RUNNING))
+                    .orElseThrow(() -> e);
+            log.info("Joining {} run {} started by another replica", jobName, existing.getRunId());
+            return existing;
+        }
+    }
+
+    @Override
+    public Optional<JobRun> resumeInterrupted(String jobName, String cron) {
+        return jobRunRepository.findFirstByJobNameAndStageInOrderByStartedAtDesc(jobName, UNFINISHED_STAGES)
+                .filter(run -> startedByLatestTrigger(run, cron))
+                .map(run -> join(run, jobName));
+    }
+
+    @Override
+    public void recordLocationCheckpoint(String runId, String locationId, long processed, long updated, long errors) {
+        jobRunRepository.recordLocationCheckpoint(runId, locationId, processed, updated, errors);
+    }
+
+    @Override
+    public void recordCheckpoint(String runId, String checkpointKey, long processed, long updated, long errors) {
+        jobRunRepository.recordCheckpoint(runId, checkpointKey, processed, updated, errors);
+    }
+
+    @Override
+    public void completeRun(String runId) {
+        finishRun(runId, JobRun.STAGE_COMPLETED, null);
+    }
+
+    @Override
+    public void failRun(String runId, String errorMessage) {
+        finishRun(runId, JobRun.STAGE_FAILED, errorMessage);
+    }
+
+    @Override
+    public JobRunDTO getRunByRunId(String runId) {
+        JobRun run = jobRunRepository.findByRunId(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Job run not found with ID: " + runId));
+        return convertToDto(run);
+    }
+
+    @Override
+    public Page<JobRunDTO> getRecentRuns(String jobName, Pageable pageable) {
+        log.info("Fetching recent job runs for job: {}", jobName);
+        Page<JobRun> runs = jobName == null
+                ? jobRunRepository.findAll(pageable)
+                : jobRunRepository.findByJobName(jobName, pageable);
+        return runs.map(this::convertToDto);
+    }
+
+    private boolean startedByLatestTrigger(JobRun run, String cron) {
+        LocalDateTime lastFireTime = CronSchedule.lastFireTime(cron, LocalDateTime.now());
+        return run.getStartedAt() != null && (lastFireTime == null || !run.getStartedAt().isBefore(lastFireTime));
+    }
+
+    /**
+     * Reopen a failed run once, then return the current state of the run to continue from its checkpoints
+     */
+    private JobRun join(JobRun run, String jobName) {
+        if (JobRun.STAGE_FAILED.equals(run.getStage()) && jobRunRepository.reopenFailedRun(run.getRunId())) {
+            log.info("Resuming failed {} run {} from checkpoint", jobName, run.getRunId());
+        }
+        JobRun joined = jobRunRepository.findByRunId(run.getRunId()).orElse(run);
+        log.info("Joining {} run {} - completed locations: {}, checkpoint: {}",
+                jobName, joined.getRunId(), joined.getCompletedLocationIds().size(), joined.getCheckpointKey());
+        return joined;
+    }
+
+    private void finishRun(String runId, String stage, String errorMessage) {
+        JobRun run = jobRunRepository.findByRunId(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Job run not found with ID: " + runId));
+
+        if (JobRun.STAGE_COMPLETED.equals(run.getStage())) {
+            // Every replica that sees the last partition finish reports completion
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Long durationMs = run.getStartedAt() != null ? Duration.between(run.getStartedAt(), now).toMillis() : null;
+        JobRun finished = jobRunRepository.finishRun(runId, stage, errorMessage, now, durationMs);
+        if (finished == null) {
+            return;
+        }
+
+        log.info("{} run {} finished with stage {} - Processed: {}, Updated: {}, Errors: {}, Duration: {} ms",
+                finished.getJobName(), runId, stage, finished.getProcessedCount(), finished.getUpdatedCount(),
+                finished.getErrorCount(), finished.getDurationMs());
+    }
+
+    private JobRunDTO convertToDto(JobRun run) {
+        JobRunDTO dto = new JobRunDTO();
+        dto.setRunId(run.getRunId());
+        dto.setJobName(run.getJobName());
+        dto.setStage(run.getStage());
+        dto.setCompletedLocationCount(run.getCompletedLocationIds() != null ? run.getCompletedLocationIds().size() : 0);
+        dto.setCheckpointKey(run.getCheckpointKey());
+        dto.setProcessedCount(run.getProcessedCount());
+        dto.setUpdatedCount(run.getUpdatedCount());
+        dto.setErrorCount(run.getErrorCount());
+        dto.setResumeCount(run.getResumeCount());
+        dto.setStartedAt(run.getStartedAt());
+        dto.setLastCheckpointAt(run.getLastCheckpointAt());
+        dto.setFinishedAt(run.getFinishedAt());
+
+        LocalDateTime end = run.getFinishedAt() != null ? run.getFinishedAt() : LocalDateTime.now();
+        long elapsedMs = run.getDurationMs() != null ? run.getDurationMs()
+                : run.getStartedAt() != null ? Duration.between(run.getStartedAt(), end).toMillis() : 0L;
+        dto.setDurationMs(elapsedMs);
+        long processed = run.getProcessedCount() != null ? run.getProcessedCount() : 0L;
+        dto.setItemsPerSecond(elapsedMs > 0 ? processed * 1000.0 / elapsedMs : 0.0);
+        dto.setErrorMessage(run.getErrorMessage());
+        return dto;
+    }
+}
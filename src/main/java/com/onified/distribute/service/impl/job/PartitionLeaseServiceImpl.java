@@ -0,0 +1,196 @@
+package com.onified.distribute.service.impl.job;
+
+import com.onified.distribute.config.SchedulerCoordinationConfig;
+import com.onified.distribute.entity.SchedulerLease;
+import com.onified.distribute.repository.SchedulerLeaseRepository;
+import com.onified.distribute.service.job.PartitionLeaseService;
+import com.onified.distribute.util.CronSchedule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Splits scheduled jobs across replicas. Locations are hashed into a fixed number of partitions and
+ * every replica that fires a job claims partitions through Mongo leases until none are left, so each
+ * partition of a run is processed by exactly one replica at a time. A replica returns as soon as nothing
+ * is left to claim; leases of a crashed replica expire and are picked up when the run is resumed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionLeaseServiceImpl implements PartitionLeaseService {
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+    private final SchedulerCoordinationConfig schedulerCoordinationConfig;
+
+    private final Set<String> heldLeaseIds = ConcurrentHashMap.newKeySet();
+    private String memberId;
+    private ScheduledExecutorService heartbeatExecutor;
+
+    @PostConstruct
+    public void start() {
+        memberId = resolveHostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        // Renewal runs on its own thread: the shared @Scheduled thread is busy with the job holding the leases
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("lease-heartbeat-"));
+        long interval = schedulerCoordinationConfig.getHeartbeatIntervalSeconds();
+        heartbeatExecutor.scheduleWithFixedDelay(this::renewHeldLeases, interval, interval, TimeUnit.SECONDS);
+        log.info("Scheduler coordination started as member {} with {} partitions",
+                memberId, schedulerCoordinationConfig.getPartitionCount());
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeatExecutor.shutdownNow();
+        // Hand held partitions back right away instead of making peers wait for the lease to expire
+        for (String leaseId : heldLeaseIds) {
+            try {
+                schedulerLeaseRepository.releaseLease(leaseId, memberId);
+            } catch (Exception e) {
+                log.warn("Could not release lease {} on shutdown: {}", leaseId, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String getMemberId() {
+        return memberId;
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return schedulerCoordinationConfig.getPartitionCount();
+    }
+
+    @Override
+    public int partitionOf(String locationId) {
+        return Math.floorMod(Objects.hashCode(locationId), getPartitionCount());
+    }
+
+    @Override
+    public String runKeyFor(String jobName, String cron) {
+        // Keyed on the trigger's scheduled fire time: jobs queue behind each other on the shared scheduler thread
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime fireTime = CronSchedule.lastFireTime(cron, now);
+        return jobName + ":" + (fireTime != null ? fireTime : now.truncatedTo(ChronoUnit.MINUTES));
+    }
+
+    @Override
+    public boolean processPartitions(String jobName, String runKey, IntConsumer work) {
+        int partitionCount = getPartitionCount();
+        int claimedCount = 0;
+
+        Integer partition;
+        while ((partition = claimNextPartition(jobName, runKey, partitionCount)) != null) {
+            runClaimedPartition(runKey, partition, work);
+            claimedCount++;
+        }
+
+        // Nothing left to claim: peers hold the rest, and a lease they stop renewing expires for a resume to take over
+        long completed = schedulerLeaseRepository.countByRunKeyAndCompleted(runKey, true);
+        if (completed >= partitionCount) {
+            log.info("All {} partitions of {} run {} are complete; {} processed {} of them",
+                    partitionCount, jobName, runKey, memberId, claimedCount);
+            return true;
+        }
+        log.info("{} run {}: {} of {} partitions complete, the rest are held by peers; {} processed {} of them",
+                jobName, runKey, completed, partitionCount, memberId, claimedCount);
+        return false;
+    }
+
+    @Override
+    public String getPartitionCheckpoint(String runKey, int partition) {
+        return schedulerLeaseRepository.findById(leaseId(runKey, partition))
+                .map(SchedulerLease::getCheckpointKey)
+                .orElse(null);
+    }
+
+    @Override
+    public void recordPartitionCheckpoint(String runKey, int partition, String checkpointKey) {
+        schedulerLeaseRepository.recordCheckpoint(leaseId(runKey, partition), memberId, checkpointKey);
+    }
+
+    private Integer claimNextPartition(String jobName, String runKey, int partitionCount) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, SchedulerLease> leases = schedulerLeaseRepository.findByRunKey(runKey).stream()
+                .collect(Collectors.toMap(SchedulerLease::getPartition, lease -> lease, (first, second) -> first));
+
+        // Start at a random partition so replicas firing together do not contend on the same lease
+        int offset = ThreadLocalRandom.current().nextInt(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            int partition = (offset + i) % partitionCount;
+            SchedulerLease lease = leases.get(partition);
+            boolean claimable = lease == null
+                    || (!Boolean.TRUE.equals(lease.getCompleted()) && lease.getExpiresAt() != null && lease.getExpiresAt().isBefore(now));
+            if (!claimable) {
+                continue;
+            }
+
+            String leaseId = leaseId(runKey, partition);
+            if (schedulerLeaseRepository.tryClaim(leaseId, runKey, jobName, partition, memberId, nextExpiry())) {
+                if (lease != null) {
+                    log.warn("{} took over expired partition {} of {} run {} from {}",
+                            memberId, partition, jobName, runKey, lease.getOwner());
+                }
+                return partition;
+            }
+        }
+        return null;
+    }
+
+    private void runClaimedPartition(String runKey, int partition, IntConsumer work) {
+        String leaseId = leaseId(runKey, partition);
+        heldLeaseIds.add(leaseId);
+        try {
+            work.accept(partition);
+            schedulerLeaseRepository.completeLease(leaseId, memberId);
+        } catch (RuntimeException e) {
+            schedulerLeaseRepository.releaseLease(leaseId, memberId);
+            throw e;
+        } finally {
+            heldLeaseIds.remove(leaseId);
+        }
+    }
+
+    private void renewHeldLeases() {
+        if (heldLeaseIds.isEmpty()) {
+            return;
+        }
+        try {
+            schedulerLeaseRepository.renewLeases(new ArrayList<>(heldLeaseIds), memberId, nextExpiry());
+        } catch (Exception e) {
+            log.error("Failed to renew {} partition leases: {}", heldLeaseIds.size(), e.getMessage(), e);
+        }
+    }
+
+    private LocalDateTime nextExpiry() {
+        return LocalDateTime.now().plusSeconds(schedulerCoordinationConfig.getLeaseTtlSeconds());
+    }
+
+    private String leaseId(String runKey, int partition) {
+        return runKey + ":" + partition;
+    }
+
+    private String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+}
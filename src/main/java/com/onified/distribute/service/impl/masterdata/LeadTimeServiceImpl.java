@@ -16,6 +16,7 @@ import com.onified.distribute.repository.SupplierRepository;
 import com.onified.distribute.repository.LocationRepository;
 import com.onified.distribute.service.dbm.InventoryBufferService;
 import com.onified.distribute.service.masterdata.LeadTimeService;
+import com.onified.distribute.service.order.ReplenishmentQueueViewService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -43,6 +44,7 @@ public class LeadTimeServiceImpl implements LeadTimeService {
     private final LocationRepository locationRepository;
     private final ConsumptionProfileRepository consumptionProfileRepository;
     private final InventoryBufferService inventoryBufferService;
+    private final ReplenishmentQueueViewService replenishmentQueueViewService;
 
     @Override
     public LeadTimeDTO createLeadTime(LeadTimeDTO leadTimeDto) {
@@ -554,6 +556,7 @@ public class LeadTimeServiceImpl implements LeadTimeService {
         LeadTime leadTime = leadTimeRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Lead time not found: " + id));
         leadTimeRepository.delete(leadTime);
+        replenishmentQueueViewService.refreshLeadTime(leadTime.getProductId(), leadTime.getLocationId());
         log.info("Lead time deleted successfully: {}", id);
     }
 
@@ -5,6 +5,7 @@ import com.onified.distribute.entity.Location;
 import com.onified.distribute.exception.LocationExceptionHandler;
 import com.onified.distribute.repository.LocationRepository;
 import com.onified.distribute.service.masterdata.LocationService;
+import com.onified.distribute.service.order.ReplenishmentQueueViewService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -24,6 +25,7 @@ import java.util.stream.Collectors;
 public class LocationServiceImpl implements LocationService {
 
     private final LocationRepository locationRepository;
+    private final ReplenishmentQueueViewService replenishmentQueueViewService;
 
     // For case-insensitive search
     @Override
@@ -152,6 +154,7 @@ public class LocationServiceImpl implements LocationService {
             .orElseThrow(() -> new IllegalArgumentException("Location not found: " + locationId));
 
         locationRepository.delete(location);
+        replenishmentQueueViewService.refreshLocation(locationId);
         log.info("Location deleted successfully: {}", locationId);
     }
 
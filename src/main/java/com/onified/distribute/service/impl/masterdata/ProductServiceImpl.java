@@ -6,6 +6,7 @@ import com.onified.distribute.entity.Product;
 import com.onified.distribute.repository.ProductRepository;
 import com.onified.distribute.service.masterdata.ProductService;
 import com.onified.distribute.exception.ProductExceptionHandler.*;
+import com.onified.distribute.service.order.ReplenishmentQueueViewService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -24,6 +25,7 @@ import java.util.stream.Collectors;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ReplenishmentQueueViewService replenishmentQueueViewService;
 
     @Override
     @Transactional(readOnly = true)
@@ -226,6 +228,7 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ProductNotFoundException("Product not found: " + productId));
 
         productRepository.delete(product);
+        replenishmentQueueViewService.refreshProduct(productId);
         log.info("Product deleted successfully: {}", productId);
     }
 
@@ -3,6 +3,7 @@ package com.onified.distribute.service.impl.order;
 import com.onified.distribute.dto.*;
 import com.onified.distribute.dto.request.CreateOrdersRequestDTO;
 import com.onified.distribute.entity.*;
+import com.onified.distribute.event.BufferInputChangedEvent;
 import com.onified.distribute.exception.BadRequestException;
 import com.onified.distribute.exception.ResourceNotFoundException;
 import com.onified.distribute.repository.*;
@@ -11,6 +12,7 @@ import com.onified.distribute.service.order.InventoryOrderPipelineService;
 import com.onified.distribute.service.order.ReplenishmentOverrideLogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -34,6 +36,7 @@ public class InventoryOrderPipelineServiceImpl implements InventoryOrderPipeline
     private final LocationRepository locationRepository;
     private final ReplenishmentOverrideLogService overrideLogService;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -84,6 +87,7 @@ public class InventoryOrderPipelineServiceImpl implements InventoryOrderPipeline
 
             order.setStatus("PROCESSED");
            orderRepository.save(order);
+            publishOrderStatusChanged(order);
             log.info("Approved order: {}", orderId);
 
             // Optionally update related queue item if linked
@@ -110,6 +114,7 @@ public class InventoryOrderPipelineServiceImpl implements InventoryOrderPipeline
         for (InventoryOrderPipeline order : draftOrders) {
             order.setStatus("PROCESSED");
      orderRepository.save(order);
+            publishOrderStatusChanged(order);
             log.info("Approved order: {}", order.getOrderId());
         }
     }
@@ -265,10 +270,15 @@ public class InventoryOrderPipelineServiceImpl implements InventoryOrderPipeline
             throw new ResourceNotFoundException("Order not found with ID: " + orderId);
         }
 
+        String previousStatus = existingOrder.getStatus();
+        Integer previousQty = existingOrder.getOrderedQty();
         updateEntityFromDto(orderDTO, existingOrder);
         existingOrder.setUpdatedAt(LocalDateTime.now());
 
         InventoryOrderPipeline savedOrder = orderRepository.save(existingOrder);
+        if (!Objects.equals(previousStatus, savedOrder.getStatus()) || !Objects.equals(previousQty, savedOrder.getOrderedQty())) {
+            publishOrderStatusChanged(savedOrder);
+        }
         return convertToDto(savedOrder);
     }
 
@@ -289,6 +299,7 @@ public class InventoryOrderPipelineServiceImpl implements InventoryOrderPipeline
         order.setUpdatedAt(LocalDateTime.now());
 
         InventoryOrderPipeline savedOrder = orderRepository.save(order);
+        publishOrderStatusChanged(savedOrder);
         return convertToDto(savedOrder);
     }
 
@@ -322,9 +333,15 @@ public class InventoryOrderPipelineServiceImpl implements InventoryOrderPipeline
         }
 
         orderRepository.delete(order);
+        publishOrderStatusChanged(order);
         log.info("Deleted order {} from inventory_orders_pipeline", orderId);
     }
 
+    private void publishOrderStatusChanged(InventoryOrderPipeline order) {
+        eventPublisher.publishEvent(new BufferInputChangedEvent(
+                order.getProductId(), order.getLocationId(), "ORDER_STATUS"));
+    }
+
     private InventoryOrderPipelineDTO convertToDto(InventoryOrderPipeline order) {
         InventoryOrderPipelineDTO dto = new InventoryOrderPipelineDTO();
         dto.setOrderId(order.getOrderId());
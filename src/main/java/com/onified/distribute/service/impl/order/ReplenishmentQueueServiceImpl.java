@@ -1,5 +1,7 @@
 package com.onified.distribute.service.impl.order;
 
+import com.mongodb.ConnectionString;
+import com.onified.distribute.config.ReplenishmentQueueGenerationConfig;
 import com.onified.distribute.dto.*;
 import com.onified.distribute.dto.InventoryOrderPipelineDTO;
 import com.onified.distribute.dto.ReplenishmentQueueDTO;
@@ -8,20 +10,33 @@ import com.onified.distribute.exception.BadRequestException;
 import com.onified.distribute.exception.ResourceNotFoundException;
 import com.onified.distribute.repository.*;
 import com.onified.distribute.service.dbm.InventoryBufferService;
-import com.onified.distribute.service.order.InventoryOrderPipelineService;
+import com.onified.distribute.service.job.JobRunService;
+import com.onified.distribute.service.job.PartitionLeaseService;
 import com.onified.distribute.service.order.ReplenishmentQueueService;
+import com.onified.distribute.service.order.ReplenishmentQueueViewService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.List;
 import java.util.Optional;
@@ -38,10 +53,18 @@ public class ReplenishmentQueueServiceImpl implements ReplenishmentQueueService
     private final ConsumptionProfileRepository consumptionProfileRepository;
     private final LeadTimeRepository leadTimeRepository;
     private final ProductRepository productRepository;
-    private final InventoryOrderPipelineService inventoryOrderPipelineService;
     private final InventoryBufferService inventoryBufferService;
     private final LocationRepository locationRepository;
     private final InventoryOrderPipelineRepository inventoryOrderPipelineRepository;
+    private final JobRunService jobRunService;
+    private final PartitionLeaseService partitionLeaseService;
+    private final ReplenishmentQueueViewService replenishmentQueueViewService;
+    private final ReplenishmentQueueGenerationConfig generationConfig;
+
+    private static final int DEFAULT_MONGO_POOL_SIZE = 100;
+
+    @Value("${spring.data.mongodb.uri}")
+    private String mongoUri;
 
     @Override
     public Optional<ReplenishmentQueue> getQueueItemByProductIdAndLocationId(String productId, String locationId) {
@@ -61,104 +84,36 @@ public class ReplenishmentQueueServiceImpl implements ReplenishmentQueueService
     @Override
     public Page<ReplenishmentQueueResponseDTO> getAllReplenishmentQueuesEnhanced(Pageable pageable, String queueId) {
         log.info("Fetching all replenishment queues with enhanced format, queueId: {}", queueId);
-        Page<ReplenishmentQueue> queues = queueId == null
-                ? queueRepository.findByIsActiveTrue(pageable)
-                : queueRepository.findByQueueIdAndIsActiveTrue(queueId, pageable);
-        return queues.map(this::convertToEnhancedDto);
+        return replenishmentQueueViewService.getActiveQueueItems(pageable, queueId);
     }
 
     @Override
     public Page<ReplenishmentQueueResponseDTO> getAllReplenishmentQueuesEnhanced(Pageable pageable) {
         log.info("Fetching all replenishment queues with enhanced format");
-        Page<ReplenishmentQueue> queues = queueRepository.findByIsActiveTrue(pageable);
-
-        return queues.map(this::convertToEnhancedDto);
+        return replenishmentQueueViewService.getActiveQueueItems(pageable, null);
     }
 
     @Override
     public Page<ReplenishmentQueueResponseDTO> getReplenishmentQueuesWithFilters(
             ReplenishmentQueueFilterDTO filters, Pageable pageable) {
         log.info("Fetching replenishment queues with filters: {}", filters);
+        return replenishmentQueueViewService.getActiveQueueItemsWithFilters(filters, pageable);
+    }
 
-        Page<ReplenishmentQueue> queues = queueRepository.findByFilters(
-                filters.getProductId(),
-                filters.getLocationId(),
-                filters.getBufferZone(),
-                filters.getStatus(),
-                filters.getMinBufferGap(),
-                filters.getMaxBufferGap(),
-                filters.getMinDaysOfSupply(),
-                filters.getMaxDaysOfSupply(),
-                filters.getRecommendedAction(),
-                filters.getMinPriorityScore(),
-                filters.getMaxPriorityScore(),
-                pageable
-        );
-
-        return queues.map(this::convertToEnhancedDto);
-    }
-
-    private ReplenishmentQueueResponseDTO convertToEnhancedDto(ReplenishmentQueue queue) {
-        ReplenishmentQueueResponseDTO dto = new ReplenishmentQueueResponseDTO();
-        dto.setId(queue.getId());
-        dto.setQueueId(queue.getQueueId());
-        dto.setProductId(queue.getProductId());
-        dto.setLocationId(queue.getLocationId());
-        dto.setBufferUnits(queue.getBufferUnits());
-        dto.setInHand(queue.getInHand());
-        dto.setInPipeline(queue.getInPipelineQty());
-        dto.setNetAvailability(queue.getNetAvailableQty());
-        dto.setBufferGap(queue.getBufferGap());
-        dto.setDaysOfSupply(queue.getDaysOfSupply());
-        dto.setBufferZone(queue.getBufferZone());
-        dto.setRecommendedAction(queue.getRecommendedAction());
-        dto.setStatus(queue.getStatus());
-        dto.setQueueDate(queue.getQueueDate());
-        dto.setReasonCodes(queue.getReasonCodes());
-
-        // Fetch product details
-        Optional<Product> product = productRepository.findByProductId(queue.getProductId());
-        if (product.isPresent()) {
-            dto.setProductName(product.get().getName());
-        } else {
-            dto.setProductName("Unknown Product");
-        }
-
-        // Fetch lead time and MOQ
-        int moq = 0;
-        try {
-            Optional<LeadTime> leadTimeOpt = leadTimeRepository.findByProductIdAndLocationIdAndIsActive(
-                    queue.getProductId(), queue.getLocationId(), true);
-            if (leadTimeOpt.isPresent()) {
-                moq = leadTimeOpt.get().getMoq() != null ? leadTimeOpt.get().getMoq() : 0;
-            } else {
-                log.warn("No active LeadTime found for productId: {}, locationId: {}",
-                        queue.getProductId(), queue.getLocationId());
-            }
-            dto.setMoq(moq);
-        } catch (Exception e) {
-            log.error("Error fetching LeadTime for productId: {}, locationId: {}: {}",
-                    queue.getProductId(), queue.getLocationId(), e.getMessage());
-            dto.setMoq(0);
-        }
-
-        // Calculate final quantity
-        int naq = queue.getNetAvailableQty();
-        int bu = queue.getBufferUnits();
-        int fq = bu - naq;
-        dto.setFinalQuantity(fq < moq ? moq : fq);
-
-        // Fetch location details
-        Optional<Location> location = locationRepository.findByLocationId(queue.getLocationId());
-        if (location.isPresent()) {
-            dto.setLocationName(location.get().getName());
-        } else {
-            dto.setLocationName("Unknown Location");
-        }
-
-        return dto;
+    @Override
+    public CursorSliceDTO<ReplenishmentQueueResponseDTO> getReplenishmentQueuesAfter(
+            ReplenishmentQueueFilterDTO filters, Sort.Order order, String after, int size) {
+        log.info("Fetching replenishment queues after cursor with filters: {}", filters);
+        return replenishmentQueueViewService.getActiveQueueItemsAfter(filters, order, after, size);
     }
 
+    /**
+     * Release the top pending order and expedite items as one batch. The buffers, locations and products
+     * of the batch are read with one $in query each. Each item is claimed with a conditional bulk update,
+     * so a concurrent release cannot also claim it. Orders for the claimed items are inserted in one batch,
+     * and in_pipeline_qty moves by $inc, so parallel releases add up instead of overwriting each other. When
+     * an insert or increment fails, the affected items are returned to pending and their orders deleted.
+     */
     @Override
     public void processReplenishmentQueue() {
         log.info("Processing replenishment queue for pending items");
@@ -166,132 +121,374 @@ public class ReplenishmentQueueServiceImpl implements ReplenishmentQueueService
         Pageable pageable = PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "priorityScore"));
         Page<ReplenishmentQueue> pendingItems = queueRepository.findByStatusAndIsActiveTrue("pending", pageable);
 
+        List<ReplenishmentQueue> actionableItems = new ArrayList<>();
         for (ReplenishmentQueue queueItem : pendingItems.getContent()) {
-            try {
-                if (!"order".equalsIgnoreCase(queueItem.getRecommendedAction()) &&
-                        !"expedite".equalsIgnoreCase(queueItem.getRecommendedAction())) {
-                    log.debug("Skipping queue item {}: recommended action is {}",
-                            queueItem.getQueueId(), queueItem.getRecommendedAction());
-                    continue;
-                }
-
-                InventoryBuffer buffer = bufferRepository.findByProductIdAndLocationId(
-                                queueItem.getProductId(), queueItem.getLocationId())
-                        .orElseThrow(() -> new ResourceNotFoundException(
-                                "Buffer not found for product: " + queueItem.getProductId() +
-                                        ", location: " + queueItem.getLocationId()));
+            if ("order".equalsIgnoreCase(queueItem.getRecommendedAction()) ||
+                    "expedite".equalsIgnoreCase(queueItem.getRecommendedAction())) {
+                actionableItems.add(queueItem);
+            } else {
+                log.debug("Skipping queue item {}: recommended action is {}",
+                        queueItem.getQueueId(), queueItem.getRecommendedAction());
+            }
+        }
+        if (actionableItems.isEmpty()) {
+            log.info("Replenishment queue processing completed. No actionable items");
+            return;
+        }
 
-                Location location = locationRepository.findByLocationId(queueItem.getLocationId())
-                        .orElseThrow(() -> new ResourceNotFoundException(
-                                "Location not found: " + queueItem.getLocationId()));
+        ReleaseLookups lookups = prefetchReleaseLookups(actionableItems);
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, InventoryOrderPipeline> orderByQueueId = new HashMap<>();
+        Map<String, InventoryBuffer> bufferByQueueId = new HashMap<>();
+        List<ReplenishmentQueue> releasable = new ArrayList<>();
 
-                Optional<Product> product = productRepository.findByProductId(queueItem.getProductId());
-                String supplierLocationId = product.get().getSupplierName();
-                if (supplierLocationId == null) {
+        for (ReplenishmentQueue queueItem : actionableItems) {
+            try {
+                String key = pairKey(queueItem.getProductId(), queueItem.getLocationId());
+                InventoryBuffer buffer = lookups.buffers.get(key);
+                if (buffer == null) {
+                    throw new ResourceNotFoundException("Buffer not found for product: " + queueItem.getProductId() +
+                            ", location: " + queueItem.getLocationId());
+                }
+                if (!lookups.locationIds.contains(queueItem.getLocationId())) {
+                    throw new ResourceNotFoundException("Location not found: " + queueItem.getLocationId());
+                }
+                Product product = lookups.products.get(queueItem.getProductId());
+                if (product == null || product.getSupplierName() == null) {
                     throw new BadRequestException("Supplier not defined for location: " + queueItem.getLocationId());
                 }
 
-                InventoryOrderPipelineDTO orderDTO = new InventoryOrderPipelineDTO();
                 String orderId = "ORD-" + UUID.randomUUID();
-                orderDTO.setOrderId(orderId);
-                orderDTO.setProductId(queueItem.getProductId());
-                orderDTO.setLocationId(queueItem.getLocationId());
-                orderDTO.setOrderType(queueItem.getRecommendedAction().equalsIgnoreCase("expedite") ? "EXPEDITE" : "STANDARD");
-                orderDTO.setOrderedQty(calculateOrderedQty(queueItem, buffer));
-
-
-                orderDTO.setStatus("DRAFT");
-                orderDTO.setCreatedAt(LocalDateTime.now());
-                orderDTO.setUpdatedAt(LocalDateTime.now());
-                orderDTO.setCreatedBy("SYSTEM");
-
-
-                InventoryOrderPipelineDTO createdOrder = inventoryOrderPipelineService.createOrder(orderDTO);
-                log.info("Created order {} for queue item {}", orderId, queueItem.getQueueId());
-
-                Integer newInPipelineQty = buffer.getInPipelineQty() + orderDTO.getOrderedQty();
-                InventoryBufferDTO bufferDTO = inventoryBufferService.getInventoryBufferById(buffer.getId());
-                bufferDTO.setInPipelineQty(newInPipelineQty);
-                inventoryBufferService.updateInventoryBuffer(buffer.getId(), bufferDTO);
-                log.info("Updated in_pipeline_qty for buffer {}: {} -> {}",
-                        buffer.getBufferId(), buffer.getInPipelineQty(), newInPipelineQty);
+                InventoryOrderPipeline order = new InventoryOrderPipeline();
+                order.setOrderId(orderId);
+                order.setProductId(queueItem.getProductId());
+                order.setLocationId(queueItem.getLocationId());
+                order.setOrderType(queueItem.getRecommendedAction().equalsIgnoreCase("expedite") ? "EXPEDITE" : "STANDARD");
+                order.setOrderedQty(calculateOrderedQty(queueItem, buffer));
+                order.setStatus("DRAFT");
+                order.setCreatedAt(now);
+                order.setUpdatedAt(now);
+                order.setCreatedBy("SYSTEM");
 
                 queueItem.setStatus("processed");
                 queueItem.setActionTaken(queueItem.getRecommendedAction());
                 queueItem.setOrderId(orderId);
-                queueItem.setProcessedAt(LocalDateTime.now());
+                queueItem.setProcessedAt(now);
                 queueItem.setProcessedBy("SYSTEM");
-                queueRepository.save(queueItem);
-                log.info("Updated queue item {} to processed with order {}", queueItem.getQueueId(), orderId);
 
+                orderByQueueId.put(queueItem.getId(), order);
+                bufferByQueueId.put(queueItem.getId(), buffer);
+                releasable.add(queueItem);
             } catch (Exception e) {
                 log.error("Error processing queue item {}: {}", queueItem.getQueueId(), e.getMessage(), e);
             }
         }
 
-        log.info("Replenishment queue processing completed. Processed {} items", pendingItems.getNumberOfElements());
+        // Only the items this call moved out of pending get an order; the rest were taken by another release
+        List<ReplenishmentQueue> claimed = queueRepository.claimPendingItems(releasable);
+        if (claimed.size() < releasable.size()) {
+            log.info("{} queue items were already released elsewhere", releasable.size() - claimed.size());
+        }
+        if (claimed.isEmpty()) {
+            log.info("Replenishment queue processing completed. Processed 0 items");
+            return;
+        }
+
+        List<InventoryOrderPipeline> orders = new ArrayList<>(claimed.size());
+        Map<String, Integer> qtyByBufferId = new HashMap<>();
+        for (ReplenishmentQueue queueItem : claimed) {
+            InventoryOrderPipeline order = orderByQueueId.get(queueItem.getId());
+            orders.add(order);
+            qtyByBufferId.merge(bufferByQueueId.get(queueItem.getId()).getId(), order.getOrderedQty(), Integer::sum);
+        }
+        try {
+            inventoryOrderPipelineRepository.insert(orders);
+        } catch (RuntimeException e) {
+            log.error("Failed to insert {} released orders, returning their queue items to pending: {}",
+                    orders.size(), e.getMessage(), e);
+            rollBackRelease(claimed, orderByQueueId);
+            replenishmentQueueViewService.refreshQueueItems(claimed);
+            return;
+        }
+
+        List<ReplenishmentQueue> released = claimed;
+        Map<String, String> failedBuffers = bufferRepository.bulkIncrementInPipelineQty(qtyByBufferId);
+        if (!failedBuffers.isEmpty()) {
+            // Items whose buffer kept its old in_pipeline_qty lose their order and go back to pending
+            List<ReplenishmentQueue> unreleased = claimed.stream()
+                    .filter(item -> failedBuffers.containsKey(bufferByQueueId.get(item.getId()).getId()))
+                    .collect(Collectors.toList());
+            log.error("Failed to add released quantities to {} buffers, returning {} queue items to pending: {}",
+                    failedBuffers.size(), unreleased.size(), failedBuffers);
+            rollBackRelease(unreleased, orderByQueueId);
+            released = claimed.stream()
+                    .filter(item -> !failedBuffers.containsKey(bufferByQueueId.get(item.getId()).getId()))
+                    .collect(Collectors.toList());
+            orders = released.stream().map(item -> orderByQueueId.get(item.getId())).collect(Collectors.toList());
+        }
+
+        // Bulk writes skip the mapping events, so refresh the read model explicitly. No buffer recalculation is
+        // queued: it derives in_pipeline_qty from confirmed statuses and would drop the DRAFT quantities added here.
+        replenishmentQueueViewService.refreshQueueItems(claimed);
+
+        log.info("Replenishment queue processing completed. Created {} orders for {} buffers",
+                orders.size(), qtyByBufferId.size() - failedBuffers.size());
+    }
+
+    /**
+     * Delete the orders of the given claimed items and return the items to pending. Orders go first: an item
+     * back in pending while its order still exists would be released twice.
+     */
+    private void rollBackRelease(List<ReplenishmentQueue> items, Map<String, InventoryOrderPipeline> orderByQueueId) {
+        if (items.isEmpty()) {
+            return;
+        }
+        try {
+            inventoryOrderPipelineRepository.deleteByOrderIdIn(items.stream()
+                    .map(item -> orderByQueueId.get(item.getId()).getOrderId())
+                    .collect(Collectors.toList()));
+            long released = queueRepository.releaseClaimedItems(items);
+            log.info("Returned {} of {} claimed queue items to pending", released, items.size());
+        } catch (Exception e) {
+            log.error("Failed to roll back the release of queue items {}: {}",
+                    items.stream().map(ReplenishmentQueue::getQueueId).collect(Collectors.toList()), e.getMessage(), e);
+            return;
+        }
+        for (ReplenishmentQueue item : items) {
+            item.setStatus("pending");
+            item.setActionTaken(null);
+            item.setOrderId(null);
+            item.setProcessedAt(null);
+            item.setProcessedBy(null);
+        }
+    }
+
+    private ReleaseLookups prefetchReleaseLookups(List<ReplenishmentQueue> queueItems) {
+        Set<String> productIds = new HashSet<>();
+        Set<String> locationIds = new HashSet<>();
+        for (ReplenishmentQueue queueItem : queueItems) {
+            productIds.add(queueItem.getProductId());
+            locationIds.add(queueItem.getLocationId());
+        }
+
+        ReleaseLookups lookups = new ReleaseLookups();
+        for (InventoryBuffer buffer : bufferRepository.findByProductIdInAndLocationIdIn(productIds, locationIds)) {
+            lookups.buffers.put(pairKey(buffer.getProductId(), buffer.getLocationId()), buffer);
+        }
+        for (Location location : locationRepository.findByLocationIdIn(new ArrayList<>(locationIds))) {
+            lookups.locationIds.add(location.getLocationId());
+        }
+        for (Product product : productRepository.findByProductIdIn(new ArrayList<>(productIds))) {
+            lookups.products.put(product.getProductId(), product);
+        }
+        return lookups;
     }
 
     @Override
     public void generateDailyReplenishmentQueue() {
         log.info("Starting hourly replenishment queue generation");
+        generateQueue(() -> jobRunService.startOrResume(JobRun.REPLENISHMENT_QUEUE_GENERATION,
+                JobRun.REPLENISHMENT_QUEUE_GENERATION_CRON));
+    }
 
+    @Override
+    public boolean resumeInterruptedQueueGeneration() {
+        Optional<JobRun> interrupted = jobRunService.resumeInterrupted(JobRun.REPLENISHMENT_QUEUE_GENERATION,
+                JobRun.REPLENISHMENT_QUEUE_GENERATION_CRON);
+        if (interrupted.isEmpty()) {
+            return false;
+        }
+        log.info("Resuming interrupted replenishment queue generation run {}", interrupted.get().getRunId());
+        generateQueue(interrupted::get);
+        return true;
+    }
+
+    private void generateQueue(Supplier<JobRun> runSupplier) {
+        JobRun run = null;
         try {
             validateRepositories();
-            int pageSize = 1000;
-            int pageNumber = 0;
-            int processedCount = 0;
-            int createdCount = 0;
-            int errorCount = 0;
-
-            while (true) {
-                Pageable pageable = PageRequest.of(pageNumber, pageSize);
-                Page<InventoryBuffer> activeBuffersPage = bufferRepository.findActiveBuffers(pageable);
-
-                if (activeBuffersPage.isEmpty()) {
-                    log.info("No more active buffers to process. Breaking pagination loop.");
-                    break;
-                }
+            run = runSupplier.get();
+            String runId = run.getRunId();
 
-                log.debug("Processing page {} with {} buffers", pageNumber, activeBuffersPage.getNumberOfElements());
-
-                for (InventoryBuffer buffer : activeBuffersPage.getContent()) {
-                    try {
-                        if (buffer == null || buffer.getProductId() == null || buffer.getLocationId() == null) {
-                            log.warn("Buffer {} has null productId or locationId, skipping", buffer != null ? buffer.getBufferId() : "null");
-                            continue;
-                        }
-
-                        ReplenishmentQueue queueItem = processBuffer(buffer);
-                        if (queueItem != null) {
-                            queueRepository.save(queueItem);
-                            createdCount++;
-                            log.debug("Created queue item for buffer: {}", buffer.getBufferId());
-                        } else {
-                            log.debug("No queue item created for buffer: {} (likely missing dependencies)", buffer.getBufferId());
-                        }
-                        processedCount++;
-                    } catch (Exception bufferException) {
-                        log.error("Error processing buffer: {} - {}", buffer != null ? buffer.getBufferId() : "null", bufferException.getMessage(), bufferException);
-                        errorCount++;
-                        processedCount++;
-                    }
-                }
+            // Replicas share the run and claim disjoint location partitions of it
+            List<String> locationIds = bufferRepository.findDistinctActiveLocationIds();
+            Map<Integer, List<String>> locationsByPartition = locationIds.stream()
+                    .collect(Collectors.groupingBy(partitionLeaseService::partitionOf));
 
-                if (!activeBuffersPage.hasNext()) {
-                    break;
-                }
-                pageNumber++;
+            QueueGenerationTotals totals = new QueueGenerationTotals();
+            IntConsumer generatePartition = partition -> generateQueueForPartition(runId, partition,
+                    locationsByPartition.getOrDefault(partition, Collections.emptyList()), totals);
+
+            boolean runComplete;
+            if (Boolean.TRUE.equals(generationConfig.getParallelEnabled()) && locationsByPartition.size() > 1) {
+                runComplete = generatePartitionsInParallel(runId, locationsByPartition.size(), generatePartition);
+            } else {
+                runComplete = partitionLeaseService.processPartitions(JobRun.REPLENISHMENT_QUEUE_GENERATION, runId, generatePartition);
             }
 
-            log.info("Hourly replenishment queue generation completed. Processed: {}, Created: {}, Errors: {}", processedCount, createdCount, errorCount);
+            log.info("Replenishment queue generation totals for run {} - Processed: {}, Upserted: {}, Deactivated: {}, Errors: {}",
+                    runId, totals.processed.sum(), totals.upserted.sum(), totals.deactivated.sum(), totals.errors.sum());
+
+            if (runComplete) {
+                jobRunService.completeRun(runId);
+                log.info("Hourly replenishment queue generation completed for run {}", runId);
+            } else {
+                log.warn("Run {} still has unfinished partitions; it stays open for the replicas holding them or a resume on restart", runId);
+            }
 
         } catch (Exception e) {
             log.error("Critical error during hourly replenishment queue generation: {}", e.getMessage(), e);
+            if (run != null) {
+                jobRunService.failRun(run.getRunId(), e.getMessage());
+            }
             throw new RuntimeException("Failed to generate hourly replenishment queue: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Run one partition-claiming worker per thread on a bounded pool and wait for all of them to finish.
+     * Returns true when every partition of the run is complete.
+     */
+    private boolean generatePartitionsInParallel(String runId, int partitionsWithWork, IntConsumer generatePartition)
+            throws InterruptedException {
+        int threads = resolveParallelism(partitionsWithWork);
+        log.info("Generating replenishment queue for {} partitions on {} threads", partitionsWithWork, threads);
+
+        AtomicBoolean runComplete = new AtomicBoolean(false);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("queue-generation-"));
+        try {
+            for (int i = 0; i < threads; i++) {
+                executor.submit(() -> {
+                    if (partitionLeaseService.processPartitions(JobRun.REPLENISHMENT_QUEUE_GENERATION, runId, generatePartition)) {
+                        runComplete.set(true);
+                    }
+                });
+            }
+            executor.shutdown();
+
+            if (!executor.awaitTermination(generationConfig.getRunTimeoutMinutes(), TimeUnit.MINUTES)) {
+                log.error("Replenishment queue generation did not finish within {} minutes", generationConfig.getRunTimeoutMinutes());
+                return false;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return runComplete.get();
+    }
+
+    /**
+     * Thread count is capped by the partitions with work and by the Mongo connection pool,
+     * keeping some connections free for API traffic
+     */
+    private int resolveParallelism(int partitionsWithWork) {
+        Integer configuredPoolSize = new ConnectionString(mongoUri).getMaxConnectionPoolSize();
+        int poolSize = configuredPoolSize != null ? configuredPoolSize : DEFAULT_MONGO_POOL_SIZE;
+        int availableConnections = Math.max(1, poolSize - generationConfig.getReservedConnections());
+
+        return Math.max(1, Math.min(partitionsWithWork,
+                Math.min(generationConfig.getMaxThreads(), availableConnections)));
+    }
+
+    private void generateQueueForPartition(String runId, int partition, List<String> locationIds,
+                                           QueueGenerationTotals totals) {
+        if (locationIds.isEmpty()) {
+            return;
+        }
+
+        int pageSize = generationConfig.getPageSize();
+        int pageNumber = 0;
+        int processedCount = 0;
+        int createdCount = 0;
+        int errorCount = 0;
+
+        // Walk the partition's active buffers in _id order so the last id of each page is a resumable checkpoint
+        String lastBufferId = partitionLeaseService.getPartitionCheckpoint(runId, partition);
+        if (lastBufferId != null) {
+            log.info("Run {} partition {} resumed after buffer {}", runId, partition, lastBufferId);
+        }
+
+        while (true) {
+            List<InventoryBuffer> activeBuffers = bufferRepository.findActiveBuffersAfterId(lastBufferId, locationIds, pageSize);
+
+            if (activeBuffers.isEmpty()) {
+                log.info("No more active buffers to process. Breaking pagination loop.");
+                break;
+            }
+
+            log.debug("Processing page {} of partition {} with {} buffers", pageNumber, partition, activeBuffers.size());
+            int pageProcessed = 0;
+            int pageCreated = 0;
+            int pageErrors = 0;
+
+            PageLookups lookups = prefetchPageLookups(activeBuffers);
+            List<ReplenishmentQueue> queueItems = new ArrayList<>(activeBuffers.size());
+
+            for (InventoryBuffer buffer : activeBuffers) {
+                try {
+                    if (buffer == null || buffer.getProductId() == null || buffer.getLocationId() == null) {
+                        log.warn("Buffer {} has null productId or locationId, skipping", buffer != null ? buffer.getBufferId() : "null");
+                        continue;
+                    }
+
+                    ReplenishmentQueue queueItem = processBuffer(buffer, lookups);
+                    if (queueItem != null) {
+                        queueItems.add(queueItem);
+                        log.debug("Created queue item for buffer: {}", buffer.getBufferId());
+                    } else {
+                        log.debug("No queue item created for buffer: {} (likely missing dependencies)", buffer.getBufferId());
+                    }
+                    pageProcessed++;
+                } catch (Exception bufferException) {
+                    log.error("Error processing buffer: {} - {}", buffer != null ? buffer.getBufferId() : "null", bufferException.getMessage(), bufferException);
+                    pageErrors++;
+                    pageProcessed++;
+                }
+            }
+
+            // Upsert on (product, location, day) so reruns refresh today's rows instead of adding new ones
+            Map<String, String> failedItems = queueRepository.bulkUpsertDailyItems(queueItems);
+            if (!failedItems.isEmpty()) {
+                log.warn("Failed to write {} queue items for page {} of partition {}: {}",
+                        failedItems.size(), pageNumber, partition, failedItems);
+            }
+            pageCreated = queueItems.size() - failedItems.size();
+            pageErrors += failedItems.size();
+
+            if (!queueItems.isEmpty()) {
+                List<ReplenishmentQueue> upsertedItems = queueRepository.findByProductIdInAndLocationIdInAndQueueDay(
+                        distinctIds(queueItems, ReplenishmentQueue::getProductId),
+                        distinctIds(queueItems, ReplenishmentQueue::getLocationId),
+                        LocalDate.now());
+                replenishmentQueueViewService.refreshQueueItems(upsertedItems);
+            }
+
+            lastBufferId = activeBuffers.get(activeBuffers.size() - 1).getId();
+            partitionLeaseService.recordPartitionCheckpoint(runId, partition, lastBufferId);
+            jobRunService.recordCheckpoint(runId, partition + ":" + lastBufferId, pageProcessed, pageCreated, pageErrors);
+            processedCount += pageProcessed;
+            createdCount += pageCreated;
+            errorCount += pageErrors;
+
+            if (activeBuffers.size() < pageSize) {
+                break;
+            }
+            pageNumber++;
+        }
+
+        // Rows from earlier days are superseded by today's; keeping them active grows every active-queue read
+        LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
+        long deactivatedCount = queueRepository.deactivateItemsQueuedBefore(locationIds, startOfToday);
+        replenishmentQueueViewService.removeQueuedBefore(locationIds, startOfToday);
+
+        totals.processed.add(processedCount);
+        totals.upserted.add(createdCount);
+        totals.deactivated.add(deactivatedCount);
+        totals.errors.add(errorCount);
+
+        log.info("Replenishment queue partition {} of run {} done. Locations: {}, Processed: {}, Upserted: {}, Deactivated: {}, Errors: {}",
+                partition, runId, locationIds.size(), processedCount, createdCount, deactivatedCount, errorCount);
+    }
+
     @Override
     public Page<ReplenishmentQueueDTO> getAllReplenishmentQueues(Pageable pageable) {
         log.info("Fetching all replenishment queues");
@@ -520,7 +717,30 @@ public class ReplenishmentQueueServiceImpl implements ReplenishmentQueueService
         return priority;
     }
 
-    private ReplenishmentQueue processBuffer(InventoryBuffer buffer) {
+    /**
+     * Load the consumption profiles, active lead times and products for a page of buffers with three $in queries
+     */
+    private PageLookups prefetchPageLookups(List<InventoryBuffer> buffers) {
+        List<String> productIds = distinctIds(buffers, InventoryBuffer::getProductId);
+        List<String> locationIds = distinctIds(buffers, InventoryBuffer::getLocationId);
+
+        PageLookups lookups = new PageLookups();
+        if (productIds.isEmpty() || locationIds.isEmpty()) {
+            return lookups;
+        }
+
+        consumptionProfileRepository.findByProductIdInAndLocationIdIn(productIds, locationIds)
+                .forEach(profile -> lookups.consumptionProfiles.putIfAbsent(
+                        pairKey(profile.getProductId(), profile.getLocationId()), profile));
+        leadTimeRepository.findByProductIdInAndLocationIdInAndIsActive(productIds, locationIds, true)
+                .forEach(leadTime -> lookups.leadTimes.putIfAbsent(
+                        pairKey(leadTime.getProductId(), leadTime.getLocationId()), leadTime));
+        productRepository.findByProductIdIn(productIds)
+                .forEach(product -> lookups.products.putIfAbsent(product.getProductId(), product));
+        return lookups;
+    }
+
+    private ReplenishmentQueue processBuffer(InventoryBuffer buffer, PageLookups lookups) {
         log.debug("Processing buffer: {} for Product: {}, Location: {}", buffer.getBufferId(), buffer.getProductId(), buffer.getLocationId());
 
         try {
@@ -529,16 +749,12 @@ public class ReplenishmentQueueServiceImpl implements ReplenishmentQueueService
                 return null;
             }
 
-            ConsumptionProfile consumptionProfile = consumptionProfileRepository
-                    .findByProductIdAndLocationId(buffer.getProductId(), buffer.getLocationId())
-                    .orElse(null);
-            LeadTime leadTime = leadTimeRepository
-                    .findByProductIdAndLocationIdAndIsActive(buffer.getProductId(), buffer.getLocationId(), true)
-                    .orElse(null);
-            Optional<Product> product = productRepository
-                    .findByProductId(buffer.getProductId());
+            String key = pairKey(buffer.getProductId(), buffer.getLocationId());
+            ConsumptionProfile consumptionProfile = lookups.consumptionProfiles.get(key);
+            LeadTime leadTime = lookups.leadTimes.get(key);
+            Product product = lookups.products.get(buffer.getProductId());
 
-            if (consumptionProfile == null || leadTime == null || product == null) {
+            if (consumptionProfile == null || leadTime == null) {
                 log.debug("Missing data for buffer: {} (Product: {}, Location: {}) - CP: {}, LT: {}, P: {}",
                         buffer.getBufferId(), buffer.getProductId(), buffer.getLocationId(),
                         consumptionProfile != null, leadTime != null, product != null);
@@ -575,6 +791,7 @@ public class ReplenishmentQueueServiceImpl implements ReplenishmentQueueService
             queueItem.setAdcUsed(consumptionProfile.getAdcNormalized());
             queueItem.setReasonCodes(reasonCodes);
             queueItem.setQueueDate(LocalDateTime.now());
+            queueItem.setQueueDay(LocalDate.now());
             queueItem.setStatus("PENDING");
             queueItem.setIsActive(true);
 
@@ -690,4 +907,42 @@ public class ReplenishmentQueueServiceImpl implements ReplenishmentQueueService
             throw new IllegalStateException("ProductRepository is not initialized");
         }
     }
+
+    private <T> List<String> distinctIds(List<T> items, Function<T, String> idGetter) {
+        return items.stream()
+                .filter(Objects::nonNull)
+                .map(idGetter)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private String pairKey(String productId, String locationId) {
+        return productId + "|" + locationId;
+    }
+
+    /**
+     * Dependencies of one release batch: buffers by "productId|locationId", known locations and products by id
+     */
+    private static class ReleaseLookups {
+        private final Map<String, InventoryBuffer> buffers = new HashMap<>();
+        private final Set<String> locationIds = new HashSet<>();
+        private final Map<String, Product> products = new HashMap<>();
+    }
+
+    /**
+     * Counters merged from the partitions of one run, which may be generated on several threads
+     */
+    private static class QueueGenerationTotals {
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder upserted = new LongAdder();
+        private final LongAdder deactivated = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    private static class PageLookups {
+        private final Map<String, ConsumptionProfile> consumptionProfiles = new HashMap<>();
+        private final Map<String, LeadTime> leadTimes = new HashMap<>();
+        private final Map<String, Product> products = new HashMap<>();
+    }
 }
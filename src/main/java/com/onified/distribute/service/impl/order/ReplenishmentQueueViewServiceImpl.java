@@ -0,0 +1,327 @@
+package com.onified.distribute.service.impl.order;
+
+import com.onified.distribute.dto.CursorSliceDTO;
+import com.onified.distribute.dto.ReplenishmentQueueFilterDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onified.distribute.config.ReplenishmentQueueSummaryConfig;
+import com.onified.distribute.dto.ReplenishmentQueueResponseDTO;
+import com.onified.distribute.dto.ReplenishmentQueueSummaryDTO;
+import com.onified.distribute.entity.*;
+import com.onified.distribute.repository.LeadTimeRepository;
+import com.onified.distribute.repository.LocationRepository;
+import com.onified.distribute.repository.ProductRepository;
+import com.onified.distribute.repository.ReplenishmentQueueViewRepository;
+import com.onified.distribute.service.order.ReplenishmentQueueViewService;
+import com.onified.distribute.util.ExportFormat;
+import com.onified.distribute.util.RowExportWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReplenishmentQueueViewServiceImpl implements ReplenishmentQueueViewService {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final int EXPORT_FLUSH_ROWS = 500;
+
+    private final ReplenishmentQueueViewRepository viewRepository;
+    private final ProductRepository productRepository;
+    private final LocationRepository locationRepository;
+    private final LeadTimeRepository leadTimeRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ReplenishmentQueueSummaryConfig summaryConfig;
+    private final ObjectMapper objectMapper;
+
+    private volatile ReplenishmentQueueSummaryDTO cachedSummary;
+    private volatile long cachedSummaryAt;
+
+    @Override
+    public Page<ReplenishmentQueueResponseDTO> getActiveQueueItems(Pageable pageable, String queueId) {
+        log.info("Fetching replenishment queue view, queueId: {}", queueId);
+        Page<ReplenishmentQueueView> views = queueId == null
+                ? viewRepository.findAll(pageable)
+                : viewRepository.findByQueueId(queueId, pageable);
+        return views.map(this::convertToResponseDto);
+    }
+
+    @Override
+    public Page<ReplenishmentQueueResponseDTO> getActiveQueueItemsWithFilters(ReplenishmentQueueFilterDTO filters, Pageable pageable) {
+        log.info("Fetching replenishment queue view with filters: {}", filters);
+        return viewRepository.findByFilters(filters, pageable).map(this::convertToResponseDto);
+    }
+
+    @Override
+    public CursorSliceDTO<ReplenishmentQueueResponseDTO> getActiveQueueItemsAfter(ReplenishmentQueueFilterDTO filters,
+                                                                                 Sort.Order order, String after, int size) {
+        log.info("Fetching replenishment queue view after cursor with filters: {}", filters);
+        return viewRepository.findSliceByFilters(filters, order, after, size).map(this::convertToResponseDto);
+    }
+
+    /**
+     * Dashboard summary of the active queue from one $facet aggregation over the view. The result is reused
+     * for the configured TTL; concurrent misses may each compute it, which is harmless.
+     */
+    @Override
+    public ReplenishmentQueueSummaryDTO getSummary() {
+        long ttlMillis = summaryConfig.getCacheTtlSeconds() * 1000L;
+        ReplenishmentQueueSummaryDTO summary = cachedSummary;
+        if (summary != null && ttlMillis > 0 && System.currentTimeMillis() - cachedSummaryAt < ttlMillis) {
+            return summary;
+        }
+
+        summary = viewRepository.summarize();
+        cachedSummary = summary;
+        cachedSummaryAt = System.currentTimeMillis();
+        return summary;
+    }
+
+    /**
+     * Write the matching view rows to the stream in priority order straight off a Mongo cursor.
+     * The view is already enriched, so no lookups are needed and only one row is in memory at a time.
+     */
+    @Override
+    public long exportQueueItems(ReplenishmentQueueFilterDTO filters, ExportFormat format, OutputStream out) {
+        RowExportWriter writer = new RowExportWriter(objectMapper, format, out);
+        try (Stream<ReplenishmentQueueView> views = viewRepository.streamByFilters(filters)) {
+            Iterator<ReplenishmentQueueView> iterator = views.iterator();
+            while (iterator.hasNext()) {
+                writer.writeRow(convertToResponseDto(iterator.next()));
+                if (writer.getRowCount() % EXPORT_FLUSH_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported {} replenishment queue rows as {}", writer.getRowCount(), format);
+        return writer.getRowCount();
+    }
+
+    /**
+     * Rewrite the view rows of the given queue items, resolving their products, locations and active
+     * lead times with one $in query each. Inactive items are dropped from the view.
+     */
+    @Override
+    public void refreshQueueItems(List<ReplenishmentQueue> queueItems) {
+        List<ReplenishmentQueue> activeItems = new ArrayList<>();
+        for (ReplenishmentQueue queueItem : queueItems) {
+            if (Boolean.TRUE.equals(queueItem.getIsActive())) {
+                activeItems.add(queueItem);
+            } else if (queueItem.getId() != null) {
+                viewRepository.deleteById(queueItem.getId());
+            }
+        }
+        if (activeItems.isEmpty()) {
+            return;
+        }
+
+        List<String> productIds = distinctIds(activeItems, ReplenishmentQueue::getProductId);
+        List<String> locationIds = distinctIds(activeItems, ReplenishmentQueue::getLocationId);
+
+        Map<String, String> productNames = new HashMap<>();
+        Map<String, String> locationNames = new HashMap<>();
+        Map<String, LeadTime> leadTimes = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            productRepository.findByProductIdIn(productIds)
+                    .forEach(product -> productNames.putIfAbsent(product.getProductId(), product.getName()));
+        }
+        if (!locationIds.isEmpty()) {
+            locationRepository.findByLocationIdIn(locationIds)
+                    .forEach(location -> locationNames.putIfAbsent(location.getLocationId(), location.getName()));
+        }
+        if (!productIds.isEmpty() && !locationIds.isEmpty()) {
+            leadTimeRepository.findByProductIdInAndLocationIdInAndIsActive(productIds, locationIds, true)
+                    .forEach(leadTime -> leadTimes.putIfAbsent(pairKey(leadTime.getProductId(), leadTime.getLocationId()), leadTime));
+        }
+
+        List<ReplenishmentQueueView> views = activeItems.stream()
+                .map(queueItem -> buildView(queueItem,
+                        productNames.get(queueItem.getProductId()),
+                        locationNames.get(queueItem.getLocationId()),
+                        leadTimes.get(pairKey(queueItem.getProductId(), queueItem.getLocationId()))))
+                .collect(Collectors.toList());
+        viewRepository.bulkUpsert(views);
+    }
+
+    @Override
+    public void removeQueueItem(String id) {
+        viewRepository.deleteById(id);
+    }
+
+    @Override
+    public long removeQueuedBefore(Collection<String> locationIds, LocalDateTime cutoff) {
+        return viewRepository.deleteQueuedBefore(locationIds, cutoff);
+    }
+
+    @Override
+    public void refreshProduct(String productId) {
+        String productName = productRepository.findByProductId(productId).map(Product::getName).orElse(null);
+        viewRepository.updateProductName(productId, productName != null ? productName : "Unknown Product");
+    }
+
+    @Override
+    public void refreshLocation(String locationId) {
+        String locationName = locationRepository.findByLocationId(locationId).map(Location::getName).orElse(null);
+        viewRepository.updateLocationName(locationId, locationName != null ? locationName : "Unknown Location");
+    }
+
+    @Override
+    public void refreshLeadTime(String productId, String locationId) {
+        List<ReplenishmentQueueView> views = viewRepository.findByProductIdAndLocationId(productId, locationId);
+        if (views.isEmpty()) {
+            return;
+        }
+
+        LeadTime leadTime = leadTimeRepository.findByProductIdInAndLocationIdInAndIsActive(
+                        Collections.singletonList(productId), Collections.singletonList(locationId), true)
+                .stream().findFirst().orElse(null);
+        int moq = moqOf(leadTime);
+        views.forEach(view -> {
+            view.setMoq(moq);
+            view.setFinalQuantity(finalQuantity(view.getBufferUnits(), view.getNetAvailability(), moq));
+        });
+        viewRepository.bulkUpsert(views);
+    }
+
+    /**
+     * Repopulate the view from every active queue row
+     */
+    @Override
+    public void rebuild() {
+        log.info("Rebuilding replenishment queue view");
+        int rebuiltCount = 0;
+        Query query = Query.query(Criteria.where("isActive").is(true));
+        try (Stream<ReplenishmentQueue> queueItems = mongoTemplate.stream(query, ReplenishmentQueue.class)) {
+            List<ReplenishmentQueue> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+            Iterator<ReplenishmentQueue> iterator = queueItems.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= REBUILD_BATCH_SIZE) {
+                    refreshQueueItems(batch);
+                    rebuiltCount += batch.size();
+                    batch.clear();
+                }
+            }
+            refreshQueueItems(batch);
+            rebuiltCount += batch.size();
+        }
+        log.info("Rebuilt replenishment queue view with {} rows", rebuiltCount);
+    }
+
+    /**
+     * Rebuild on startup when the view is empty or still holds rows written before the normalized filter fields
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (viewRepository.count() == 0 || viewRepository.hasRowsMissingNormalizedFields()) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Error rebuilding replenishment queue view: {}", e.getMessage(), e);
+        }
+    }
+
+    private ReplenishmentQueueView buildView(ReplenishmentQueue queueItem, String productName, String locationName, LeadTime leadTime) {
+        if (leadTime == null) {
+            log.warn("No active LeadTime found for productId: {}, locationId: {}",
+                    queueItem.getProductId(), queueItem.getLocationId());
+        }
+        int moq = moqOf(leadTime);
+
+        ReplenishmentQueueView view = new ReplenishmentQueueView();
+        view.setId(queueItem.getId());
+        view.setQueueId(queueItem.getQueueId());
+        view.setProductId(queueItem.getProductId());
+        view.setProductName(productName != null ? productName : "Unknown Product");
+        view.setLocationId(queueItem.getLocationId());
+        view.setLocationName(locationName != null ? locationName : "Unknown Location");
+        view.setBufferUnits(queueItem.getBufferUnits());
+        view.setInHand(queueItem.getInHand());
+        view.setInPipeline(queueItem.getInPipelineQty());
+        view.setNetAvailability(queueItem.getNetAvailableQty());
+        view.setBufferGap(queueItem.getBufferGap());
+        view.setMoq(moq);
+        view.setFinalQuantity(finalQuantity(queueItem.getBufferUnits(), queueItem.getNetAvailableQty(), moq));
+        view.setDaysOfSupply(queueItem.getDaysOfSupply());
+        view.setBufferZone(queueItem.getBufferZone());
+        view.setRecommendedAction(queueItem.getRecommendedAction());
+        view.setPriorityScore(queueItem.getPriorityScore());
+        view.setStatus(queueItem.getStatus());
+        view.setQueueDate(queueItem.getQueueDate());
+        view.setReasonCodes(queueItem.getReasonCodes());
+        view.setBufferZoneNormalized(normalize(queueItem.getBufferZone()));
+        view.setRecommendedActionNormalized(normalize(queueItem.getRecommendedAction()));
+        view.setStatusNormalized(normalize(queueItem.getStatus()));
+        return view;
+    }
+
+    private ReplenishmentQueueResponseDTO convertToResponseDto(ReplenishmentQueueView view) {
+        ReplenishmentQueueResponseDTO dto = new ReplenishmentQueueResponseDTO();
+        dto.setId(view.getId());
+        dto.setQueueId(view.getQueueId());
+        dto.setProductId(view.getProductId());
+        dto.setProductName(view.getProductName());
+        dto.setLocationId(view.getLocationId());
+        dto.setLocationName(view.getLocationName());
+        dto.setBufferUnits(view.getBufferUnits());
+        dto.setInHand(view.getInHand());
+        dto.setInPipeline(view.getInPipeline());
+        dto.setNetAvailability(view.getNetAvailability());
+        dto.setBufferGap(view.getBufferGap());
+        dto.setFinalQuantity(view.getFinalQuantity());
+        dto.setMoq(view.getMoq());
+        dto.setDaysOfSupply(view.getDaysOfSupply());
+        dto.setBufferZone(view.getBufferZone());
+        dto.setRecommendedAction(view.getRecommendedAction());
+        dto.setPriorityScore(view.getPriorityScore());
+        dto.setStatus(view.getStatus());
+        dto.setQueueDate(view.getQueueDate());
+        dto.setReasonCodes(view.getReasonCodes());
+        return dto;
+    }
+
+    /**
+     * Upper-case copy of an enum-like field so filters can use plain equality on an index
+     */
+    private String normalize(String value) {
+        return value != null ? value.trim().toUpperCase(Locale.ROOT) : null;
+    }
+
+    private int moqOf(LeadTime leadTime) {
+        return leadTime != null && leadTime.getMoq() != null ? leadTime.getMoq() : 0;
+    }
+
+    private int finalQuantity(Integer bufferUnits, Integer netAvailableQty, int moq) {
+        int shortfall = (bufferUnits != null ? bufferUnits : 0) - (netAvailableQty != null ? netAvailableQty : 0);
+        return Math.max(shortfall, moq);
+    }
+
+    private <T> List<String> distinctIds(List<T> items, Function<T, String> idGetter) {
+        return items.stream()
+                .map(idGetter)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private String pairKey(String productId, String locationId) {
+        return productId + "|" + locationId;
+    }
+}
@@ -0,0 +1,30 @@
+package com.onified.distribute.service.job;
+
+import com.onified.distribute.dto.JobRunDTO;
+import com.onified.distribute.entity.JobRun;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+
+public interface JobRunService {
+
+    /**
+     * Joins the job's unfinished run when it started at or after the cron's latest trigger, so replicas firing
+     * the same trigger share one run; an unfinished run of an earlier trigger is abandoned and a new one started
+     */
+    JobRun startOrResume(String jobName, String cron);
+
+    /**
+     * The job's unfinished run of the cron's latest trigger, joined to continue from its checkpoints, or empty
+     * when there is none. Never starts a run.
+     */
+    Optional<JobRun> resumeInterrupted(String jobName, String cron);
+
+    void recordLocationCheckpoint(String runId, String locationId, long processed, long updated, long errors);
+    void recordCheckpoint(String runId, String checkpointKey, long processed, long updated, long errors);
+    void completeRun(String runId);
+    void failRun(String runId, String errorMessage);
+    JobRunDTO getRunByRunId(String runId);
+    Page<JobRunDTO> getRecentRuns(String jobName, Pageable pageable);
+}
@@ -0,0 +1,25 @@
+package com.onified.distribute.service.job;
+
+import java.util.function.IntConsumer;
+
+public interface PartitionLeaseService {
+    String getMemberId();
+    int getPartitionCount();
+    /**
+     * Partition of the location; a null location id falls in partition 0
+     */
+    int partitionOf(String locationId);
+
+    /**
+     * Key shared by every replica handling the same trigger of the cron, however late its scheduler thread starts it
+     */
+    String runKeyFor(String jobName, String cron);
+
+    /**
+     * Claim and process partitions of the run until none is claimable, without waiting on peers.
+     * Returns true when every partition of the run is complete.
+     */
+    boolean processPartitions(String jobName, String runKey, IntConsumer work);
+    String getPartitionCheckpoint(String runKey, int partition);
+    void recordPartitionCheckpoint(String runKey, int partition, String checkpointKey);
+}
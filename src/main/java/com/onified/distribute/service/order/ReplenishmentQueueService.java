@@ -1,5 +1,6 @@
 package com.onified.distribute.service.order;
 
+import com.onified.distribute.dto.CursorSliceDTO;
 import com.onified.distribute.dto.InventoryOrderPipelineDTO;
 import com.onified.distribute.dto.ReplenishmentQueueDTO;
 import com.onified.distribute.dto.ReplenishmentQueueFilterDTO;
@@ -7,16 +8,23 @@ import com.onified.distribute.dto.ReplenishmentQueueResponseDTO;
 import com.onified.distribute.entity.ReplenishmentQueue;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.Optional;
 
 public interface ReplenishmentQueueService {
     Page<ReplenishmentQueueResponseDTO> getAllReplenishmentQueuesEnhanced(Pageable pageable, String queueId);
     Page<ReplenishmentQueueResponseDTO> getReplenishmentQueuesWithFilters(ReplenishmentQueueFilterDTO filters, Pageable pageable);
+    CursorSliceDTO<ReplenishmentQueueResponseDTO> getReplenishmentQueuesAfter(ReplenishmentQueueFilterDTO filters, Sort.Order order, String after, int size);
     Optional<ReplenishmentQueue> getQueueEntityById(String queueId);
 
     void processReplenishmentQueue();
     void generateDailyReplenishmentQueue();
+
+    /**
+     * Continue the latest trigger's queue generation run if it was left unfinished; returns false when there is none
+     */
+    boolean resumeInterruptedQueueGeneration();
     Page<ReplenishmentQueueDTO> getAllReplenishmentQueues(Pageable pageable);
     ReplenishmentQueueDTO createQueueItem(ReplenishmentQueueDTO queueDTO);
     ReplenishmentQueueDTO updateQueueItem(String queueId, ReplenishmentQueueDTO queueDTO);
@@ -0,0 +1,31 @@
+package com.onified.distribute.service.order;
+
+import com.onified.distribute.dto.CursorSliceDTO;
+import com.onified.distribute.dto.ReplenishmentQueueFilterDTO;
+import com.onified.distribute.dto.ReplenishmentQueueResponseDTO;
+import com.onified.distribute.dto.ReplenishmentQueueSummaryDTO;
+import com.onified.distribute.entity.ReplenishmentQueue;
+import com.onified.distribute.util.ExportFormat;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ReplenishmentQueueViewService {
+    Page<ReplenishmentQueueResponseDTO> getActiveQueueItems(Pageable pageable, String queueId);
+    Page<ReplenishmentQueueResponseDTO> getActiveQueueItemsWithFilters(ReplenishmentQueueFilterDTO filters, Pageable pageable);
+    CursorSliceDTO<ReplenishmentQueueResponseDTO> getActiveQueueItemsAfter(ReplenishmentQueueFilterDTO filters, Sort.Order order, String after, int size);
+    ReplenishmentQueueSummaryDTO getSummary();
+    long exportQueueItems(ReplenishmentQueueFilterDTO filters, ExportFormat format, OutputStream out);
+    void refreshQueueItems(List<ReplenishmentQueue> queueItems);
+    void removeQueueItem(String id);
+    long removeQueuedBefore(Collection<String> locationIds, LocalDateTime cutoff);
+    void refreshProduct(String productId);
+    void refreshLocation(String locationId);
+    void refreshLeadTime(String productId, String locationId);
+    void rebuild();
+}
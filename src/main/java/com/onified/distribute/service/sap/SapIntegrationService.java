@@ -3,10 +3,13 @@ package com.onified.distribute.service.sap;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.onified.distribute.dto.sap.SapResponse;
 import com.onified.distribute.entity.DailyConsumptionLog;
+import com.onified.distribute.event.BufferInputChangedEvent;
+import com.onified.distribute.event.ConsumptionLogChangedEvent;
 import com.onified.distribute.repository.DailyConsumptionLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
@@ -20,6 +23,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,6 +36,7 @@ public class SapIntegrationService {
     private final ObjectMapper objectMapper;
     private final DailyConsumptionLogRepository consumptionLogRepository;
     private final Map<String, String> productLocationMapping;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${sap.api.url:https://l550274-iflmap.hcisbp.ae1.hana.ondemand.com/http/Towel_StockDetail}")
     private String sapApiUrl;
@@ -40,10 +45,17 @@ public class SapIntegrationService {
     private String authorization;
 
     public void syncDailyConsumptionData(LocalDate startDate, LocalDate endDate) {
+        syncDailyConsumptionData(startDate, endDate, location -> true);
+    }
+
+    public void syncDailyConsumptionData(LocalDate startDate, LocalDate endDate, Predicate<String> locationFilter) {
         validateDateRange(startDate, endDate);
         log.info("Starting SAP sync for date range: {} to {}", startDate, endDate);
 
         productLocationMapping.forEach((location, sku) -> {
+            if (!locationFilter.test(location)) {
+                return;
+            }
             try {
                 log.info("Syncing data for location: {} and SKU: {}", location, sku);
                 fetchAndSaveConsumptionData(location, sku, startDate, endDate);
@@ -275,6 +287,11 @@ public class SapIntegrationService {
                     consumptionLog.getProductId(), consumptionLog.getLocationId(), consumptionLog.getConsumptionDate())) {
 
                 consumptionLogRepository.save(consumptionLog);
+                eventPublisher.publishEvent(new BufferInputChangedEvent(
+                        consumptionLog.getProductId(), consumptionLog.getLocationId(), "SAP_SYNC"));
+                eventPublisher.publishEvent(new ConsumptionLogChangedEvent(consumptionLog.getProductId(),
+                        consumptionLog.getLocationId(), consumptionLog.getConsumptionDate(),
+                        consumptionLog.getQuantityConsumed(), false, consumptionLog.getCreatedAt()));
                 log.info("Saved consumption log for product: {}, location: {}, date: {}",
                         consumptionLog.getProductId(), consumptionLog.getLocationId(), consumptionLog.getConsumptionDate());
             } else {
@@ -0,0 +1,195 @@
+package com.onified.distribute.util;
+
+import com.onified.distribute.entity.DailyConsumptionLog;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Consumption profile statistics for one product-location pair, computed in a single pass over primitive arrays.
+ * The ADC of each window is the mean quantity of the log rows dated on or after now minus the window, and the
+ * deviation is the sample standard deviation of the 30-day rows, matching the per-window queries it replaces.
+ */
+public final class ConsumptionWindowStats {
+
+    /**
+     * Longest window; callers only need to load this many days of logs
+     */
+    public static final int MAX_WINDOW_DAYS = 60;
+
+    private static final int[] WINDOW_DAYS = {7, 14, 30, 60};
+    private static final int DEVIATION_WINDOW = 2;
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private final double[] adc = new double[WINDOW_DAYS.length];
+    private double stdDeviation;
+    private double coefficientOfVariation;
+    private int dataPointsUsed;
+    private LocalDateTime lastConsumptionDate;
+
+    private ConsumptionWindowStats() {
+    }
+
+    /**
+     * Statistics of the given logs, in any order; rows older than the longest window are ignored
+     */
+    public static ConsumptionWindowStats fromLogs(List<DailyConsumptionLog> logs, LocalDateTime now) {
+        long[] consumedAt = new long[logs.size()];
+        double[] quantities = new double[logs.size()];
+        int length = 0;
+        for (DailyConsumptionLog log : logs) {
+            if (log.getConsumptionDate() == null) {
+                continue;
+            }
+            consumedAt[length] = toEpochMillis(log.getConsumptionDate());
+            quantities[length] = log.getQuantityConsumed() != null ? log.getQuantityConsumed() : 0.0;
+            length++;
+        }
+        return compute(consumedAt, quantities, length, toEpochMillis(now));
+    }
+
+    /**
+     * Statistics of the first length entries of the arrays, where consumedAt holds epoch millis
+     */
+    public static ConsumptionWindowStats compute(long[] consumedAt, double[] quantities, int length, long nowMillis) {
+        long[] cutoffs = new long[WINDOW_DAYS.length];
+        for (int w = 0; w < WINDOW_DAYS.length; w++) {
+            cutoffs[w] = nowMillis - WINDOW_DAYS[w] * DAY_MILLIS;
+        }
+
+        double[] sums = new double[WINDOW_DAYS.length];
+        int[] counts = new int[WINDOW_DAYS.length];
+        // Welford's running mean and squared deviations for the deviation window
+        double mean = 0.0;
+        double squaredDeviations = 0.0;
+        long latest = Long.MIN_VALUE;
+
+        for (int i = 0; i < length; i++) {
+            long at = consumedAt[i];
+            double quantity = quantities[i];
+            for (int w = 0; w < WINDOW_DAYS.length; w++) {
+                if (at >= cutoffs[w]) {
+                    sums[w] += quantity;
+                    counts[w]++;
+                }
+            }
+            if (at >= cutoffs[DEVIATION_WINDOW]) {
+                double delta = quantity - mean;
+                mean += delta / counts[DEVIATION_WINDOW];
+                squaredDeviations += delta * (quantity - mean);
+            }
+            if (at >= cutoffs[WINDOW_DAYS.length - 1] && at > latest) {
+                latest = at;
+            }
+        }
+
+        ConsumptionWindowStats stats = new ConsumptionWindowStats();
+        for (int w = 0; w < WINDOW_DAYS.length; w++) {
+            stats.adc[w] = counts[w] == 0 ? 0.0 : sums[w] / counts[w];
+        }
+        int deviationCount = counts[DEVIATION_WINDOW];
+        stats.dataPointsUsed = deviationCount;
+        if (deviationCount >= 2) {
+            stats.stdDeviation = Math.sqrt(squaredDeviations / (deviationCount - 1));
+            stats.coefficientOfVariation = mean == 0 ? 0.0 : (stats.stdDeviation / mean) * 100;
+        }
+        stats.lastConsumptionDate = latest == Long.MIN_VALUE ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(latest), ZoneId.systemDefault());
+        return stats;
+    }
+
+    /**
+     * Statistics from running per-window sums and row counts plus the sum of squared quantities of the
+     * deviation window, as kept by {@link RollingConsumptionWindow}
+     */
+    static ConsumptionWindowStats fromAccumulators(double[] sums, int[] counts, double deviationSquares,
+                                                   LocalDateTime lastConsumptionDate) {
+        ConsumptionWindowStats stats = new ConsumptionWindowStats();
+        for (int w = 0; w < WINDOW_DAYS.length; w++) {
+            stats.adc[w] = counts[w] <= 0 ? 0.0 : sums[w] / counts[w];
+        }
+        int deviationCount = counts[DEVIATION_WINDOW];
+        stats.dataPointsUsed = Math.max(deviationCount, 0);
+        if (deviationCount >= 2) {
+            double mean = sums[DEVIATION_WINDOW] / deviationCount;
+            // Rounding in the running sums can leave a tiny negative variance for constant series
+            double variance = Math.max(0.0, (deviationSquares - deviationCount * mean * mean) / (deviationCount - 1));
+            stats.stdDeviation = Math.sqrt(variance);
+            stats.coefficientOfVariation = mean == 0 ? 0.0 : (stats.stdDeviation / mean) * 100;
+        }
+        stats.lastConsumptionDate = lastConsumptionDate;
+        return stats;
+    }
+
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public double getAdc7d() {
+        return adc[0];
+    }
+
+    public double getAdc14d() {
+        return adc[1];
+    }
+
+    public double getAdc30d() {
+        return adc[2];
+    }
+
+    public double getAdc60d() {
+        return adc[3];
+    }
+
+    public double getStdDeviation() {
+        return stdDeviation;
+    }
+
+    public double getCoefficientOfVariation() {
+        return coefficientOfVariation;
+    }
+
+    public int getDataPointsUsed() {
+        return dataPointsUsed;
+    }
+
+    /**
+     * Latest log date within the longest window, or null when the window is empty
+     */
+    public LocalDateTime getLastConsumptionDate() {
+        return lastConsumptionDate;
+    }
+
+    public String getTrend() {
+        return trendOf(getAdc7d(), getAdc14d(), getAdc30d());
+    }
+
+    public double getTrendConfidence() {
+        return trendConfidenceOf(getAdc7d(), getAdc14d(), getAdc30d());
+    }
+
+    /**
+     * INCREASING, DECREASING, VOLATILE or STABLE from the short-term and long-term ADC changes
+     */
+    public static String trendOf(double adc7d, double adc14d, double adc30d) {
+        double shortTermTrend = (adc7d - adc14d) / adc14d * 100;
+        double longTermTrend = (adc14d - adc30d) / adc30d * 100;
+        if (shortTermTrend > 10 && longTermTrend > 5) {
+            return "INCREASING";
+        } else if (shortTermTrend < -10 && longTermTrend < -5) {
+            return "DECREASING";
+        } else if (Math.abs(shortTermTrend) > 20) {
+            return "VOLATILE";
+        } else {
+            return "STABLE";
+        }
+    }
+
+    public static double trendConfidenceOf(double adc7d, double adc14d, double adc30d) {
+        double variance = Math.pow(adc7d - adc30d, 2) + Math.pow(adc14d - adc30d, 2);
+        double maxVariance = Math.pow(adc30d, 2) * 2;
+        return Math.max(0.0, Math.min(1.0, 1.0 - (variance / maxVariance)));
+    }
+}
@@ -0,0 +1,34 @@
+package com.onified.distribute.util;
+
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fire times of the Spring cron expressions the scheduled jobs run on, evaluated in the server time zone
+ * like the @Scheduled triggers themselves.
+ */
+public final class CronSchedule {
+
+    /**
+     * Covers weekly crons, and with them the gap over a weekend of a weekday cron
+     */
+    private static final int LOOKBACK_DAYS = 8;
+
+    private CronSchedule() {
+    }
+
+    /**
+     * Latest fire time at or before the given time, or null when the cron did not fire within the lookback
+     */
+    public static LocalDateTime lastFireTime(String cron, LocalDateTime at) {
+        CronExpression expression = CronExpression.parse(cron);
+        LocalDateTime last = null;
+        LocalDateTime next = expression.next(at.minusDays(LOOKBACK_DAYS));
+        while (next != null && !next.isAfter(at)) {
+            last = next;
+            next = expression.next(next);
+        }
+        return last;
+    }
+}
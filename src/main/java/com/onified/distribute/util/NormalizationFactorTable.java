@@ -0,0 +1,112 @@
+package com.onified.distribute.util;
+
+import com.onified.distribute.entity.SeasonalityAdjustment;
+import com.onified.distribute.entity.SpecialEvent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seasonality and special-event factors of every product-location pair, loaded once per profile run so each
+ * pair's normalization factor is two hash probes. Seasonality is a dense row of twelve monthly factors per
+ * pair; events keep the largest change factor per pair among those active at the run time. Missing entries
+ * default to 1.0, as in SeasonalityAdjustmentService.getSeasonalityFactor and
+ * SpecialEventService.getEventImpactFactor.
+ */
+public final class NormalizationFactorTable {
+
+    private static final int MONTHS = 12;
+    private static final double DEFAULT_FACTOR = 1.0;
+
+    private final Map<String, double[]> monthlySeasonality;
+    private final Map<String, Double> eventFactors;
+    private final int month;
+
+    private NormalizationFactorTable(Map<String, double[]> monthlySeasonality, Map<String, Double> eventFactors,
+                                     int month) {
+        this.monthlySeasonality = monthlySeasonality;
+        this.eventFactors = eventFactors;
+        this.month = month;
+    }
+
+    /**
+     * Table for the given month from active seasonality rows and the events active at the run time. When a
+     * pair has rows for the same month in several years, the row for the given year wins, else the latest year.
+     */
+    public static NormalizationFactorTable of(List<SeasonalityAdjustment> adjustments, List<SpecialEvent> events,
+                                              int year, int month) {
+        Map<String, double[]> monthlySeasonality = new HashMap<>();
+        Map<String, int[]> monthlyYears = new HashMap<>();
+        for (SeasonalityAdjustment adjustment : adjustments) {
+            Integer adjustmentMonth = adjustment.getMonth();
+            if (adjustment.getProductId() == null || adjustment.getLocationId() == null
+                    || adjustmentMonth == null || adjustmentMonth < 1 || adjustmentMonth > MONTHS
+                    || adjustment.getSeasonalityFactor() == null) {
+                continue;
+            }
+            String key = keyOf(adjustment.getProductId(), adjustment.getLocationId());
+            double[] factors = monthlySeasonality.computeIfAbsent(key, k -> {
+                double[] empty = new double[MONTHS];
+                Arrays.fill(empty, Double.NaN);
+                return empty;
+            });
+            int[] years = monthlyYears.computeIfAbsent(key, k -> new int[MONTHS]);
+            int index = adjustmentMonth - 1;
+            int adjustmentYear = adjustment.getYear() != null ? adjustment.getYear() : Integer.MIN_VALUE;
+            if (Double.isNaN(factors[index]) || prefers(adjustmentYear, years[index], year)) {
+                factors[index] = adjustment.getSeasonalityFactor();
+                years[index] = adjustmentYear;
+            }
+        }
+
+        Map<String, Double> eventFactors = new HashMap<>();
+        for (SpecialEvent event : events) {
+            if (event.getProductId() == null || event.getLocationId() == null) {
+                continue;
+            }
+            double factor = event.getChangeFactor() != null ? event.getChangeFactor() : DEFAULT_FACTOR;
+            eventFactors.merge(keyOf(event.getProductId(), event.getLocationId()), factor, Math::max);
+        }
+        return new NormalizationFactorTable(monthlySeasonality, eventFactors, month);
+    }
+
+    /**
+     * Seasonality factor of the table's month plus the event impact factor
+     */
+    public double normalizationFactor(String productId, String locationId) {
+        return seasonalityFactor(productId, locationId) + eventImpactFactor(productId, locationId);
+    }
+
+    public double seasonalityFactor(String productId, String locationId) {
+        double[] factors = monthlySeasonality.get(keyOf(productId, locationId));
+        if (factors == null || Double.isNaN(factors[month - 1])) {
+            return DEFAULT_FACTOR;
+        }
+        return factors[month - 1];
+    }
+
+    public double eventImpactFactor(String productId, String locationId) {
+        return eventFactors.getOrDefault(keyOf(productId, locationId), DEFAULT_FACTOR);
+    }
+
+    public int getPairCount() {
+        return monthlySeasonality.size();
+    }
+
+    public int getEventPairCount() {
+        return eventFactors.size();
+    }
+
+    private static boolean prefers(int candidateYear, int currentYear, int runYear) {
+        if (currentYear == runYear) {
+            return false;
+        }
+        return candidateYear == runYear || candidateYear > currentYear;
+    }
+
+    private static String keyOf(String productId, String locationId) {
+        return productId + "|" + locationId;
+    }
+}
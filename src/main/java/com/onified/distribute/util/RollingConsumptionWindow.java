@@ -0,0 +1,180 @@
+package com.onified.distribute.util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Rolling consumption accumulators for one product-location pair. Daily totals, row counts and squared
+ * quantities sit in a ring buffer of the last 60 days, and each profile window keeps a running sum and
+ * row count, so adding a log or moving to the next day costs a constant number of array updates.
+ * Windows cover whole days: the 7-day window is today and the six days before it.
+ */
+public final class RollingConsumptionWindow {
+
+    public static final int CAPACITY_DAYS = ConsumptionWindowStats.MAX_WINDOW_DAYS;
+
+    private static final int[] WINDOW_DAYS = {7, 14, 30, 60};
+    private static final int DEVIATION_WINDOW = 2;
+
+    private long anchorDay;
+    private final double[] dailyTotals;
+    private final int[] dailyCounts;
+    private final double[] dailySquares;
+    private final double[] windowSums;
+    private final int[] windowCounts;
+    private double deviationSquares;
+
+    /**
+     * Empty window whose newest day is the given day
+     */
+    public RollingConsumptionWindow(LocalDate anchorDay) {
+        this(anchorDay.toEpochDay(), new double[CAPACITY_DAYS], new int[CAPACITY_DAYS], new double[CAPACITY_DAYS],
+                new double[WINDOW_DAYS.length], new int[WINDOW_DAYS.length], 0.0);
+    }
+
+    /**
+     * Window restored from persisted state; the arrays are used as is, not copied
+     */
+    public RollingConsumptionWindow(long anchorDay, double[] dailyTotals, int[] dailyCounts, double[] dailySquares,
+                                    double[] windowSums, int[] windowCounts, double deviationSquares) {
+        if (dailyTotals.length != CAPACITY_DAYS || dailyCounts.length != CAPACITY_DAYS
+                || dailySquares.length != CAPACITY_DAYS || windowSums.length != WINDOW_DAYS.length
+                || windowCounts.length != WINDOW_DAYS.length) {
+            throw new IllegalArgumentException("Rolling window state does not match the window layout");
+        }
+        this.anchorDay = anchorDay;
+        this.dailyTotals = dailyTotals;
+        this.dailyCounts = dailyCounts;
+        this.dailySquares = dailySquares;
+        this.windowSums = windowSums;
+        this.windowCounts = windowCounts;
+        this.deviationSquares = deviationSquares;
+    }
+
+    /**
+     * Moves the newest day forward, dropping the days that fall out of each window. A gap of 60 days or more
+     * empties the window.
+     */
+    public void advanceTo(LocalDate day) {
+        long target = day.toEpochDay();
+        if (target <= anchorDay) {
+            return;
+        }
+        if (target - anchorDay >= CAPACITY_DAYS) {
+            clear();
+            anchorDay = target;
+            return;
+        }
+        while (anchorDay < target) {
+            anchorDay++;
+            for (int w = 0; w < WINDOW_DAYS.length; w++) {
+                int leaving = slot(anchorDay - WINDOW_DAYS[w]);
+                windowSums[w] -= dailyTotals[leaving];
+                windowCounts[w] -= dailyCounts[leaving];
+                if (w == DEVIATION_WINDOW) {
+                    deviationSquares -= dailySquares[leaving];
+                }
+            }
+            // The 60-day window just released this slot, so it is free for the new day
+            int entering = slot(anchorDay);
+            dailyTotals[entering] = 0.0;
+            dailyCounts[entering] = 0;
+            dailySquares[entering] = 0.0;
+        }
+    }
+
+    /**
+     * Adds one log row; days after the newest day advance the window first, days older than 60 days are ignored
+     */
+    public void add(LocalDate day, double quantity) {
+        apply(day, quantity, 1);
+    }
+
+    /**
+     * Removes one previously added log row
+     */
+    public void remove(LocalDate day, double quantity) {
+        apply(day, -quantity, -1);
+    }
+
+    /**
+     * Statistics of the windows ending on the current newest day
+     */
+    public ConsumptionWindowStats toStats() {
+        LocalDate lastDay = null;
+        for (long day = anchorDay; day > anchorDay - CAPACITY_DAYS; day--) {
+            if (dailyCounts[slot(day)] > 0) {
+                lastDay = LocalDate.ofEpochDay(day);
+                break;
+            }
+        }
+        return ConsumptionWindowStats.fromAccumulators(windowSums, windowCounts, deviationSquares,
+                lastDay != null ? lastDay.atStartOfDay() : null);
+    }
+
+    public LocalDate getAnchorDay() {
+        return LocalDate.ofEpochDay(anchorDay);
+    }
+
+    public double[] getDailyTotals() {
+        return dailyTotals;
+    }
+
+    public int[] getDailyCounts() {
+        return dailyCounts;
+    }
+
+    public double[] getDailySquares() {
+        return dailySquares;
+    }
+
+    public double[] getWindowSums() {
+        return windowSums;
+    }
+
+    public int[] getWindowCounts() {
+        return windowCounts;
+    }
+
+    public double getDeviationSquares() {
+        return deviationSquares;
+    }
+
+    private void apply(LocalDate day, double signedQuantity, int rowDelta) {
+        long epochDay = day.toEpochDay();
+        if (epochDay > anchorDay) {
+            advanceTo(day);
+        }
+        long age = anchorDay - epochDay;
+        if (age >= CAPACITY_DAYS) {
+            return;
+        }
+        int index = slot(epochDay);
+        double square = signedQuantity * signedQuantity * rowDelta;
+        dailyTotals[index] += signedQuantity;
+        dailyCounts[index] += rowDelta;
+        dailySquares[index] += square;
+        for (int w = 0; w < WINDOW_DAYS.length; w++) {
+            if (age < WINDOW_DAYS[w]) {
+                windowSums[w] += signedQuantity;
+                windowCounts[w] += rowDelta;
+                if (w == DEVIATION_WINDOW) {
+                    deviationSquares += square;
+                }
+            }
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(dailyTotals, 0.0);
+        Arrays.fill(dailyCounts, 0);
+        Arrays.fill(dailySquares, 0.0);
+        Arrays.fill(windowSums, 0.0);
+        Arrays.fill(windowCounts, 0);
+        deviationSquares = 0.0;
+    }
+
+    private static int slot(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) CAPACITY_DAYS);
+    }
+}
@@ -0,0 +1,98 @@
+package com.onified.distribute.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes export rows one at a time as NDJSON lines or CSV records. Only the current row is held in memory.
+ * CSV columns are the JSON properties of the first row.
+ */
+public class RowExportWriter {
+
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final ExportFormat format;
+    private final BufferedWriter writer;
+    private List<String> columns;
+    private long rowCount;
+
+    public RowExportWriter(ObjectMapper objectMapper, ExportFormat format, OutputStream out) {
+        this.objectMapper = objectMapper;
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public void writeRow(Object row) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                writer.write(objectMapper.writeValueAsString(row));
+            } else {
+                writeCsvRecord(objectMapper.convertValue(row, ROW_TYPE));
+            }
+            writer.newLine();
+            rowCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Push buffered rows to the client; call between chunks so the response streams instead of piling up
+     */
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private void writeCsvRecord(Map<String, Object> values) throws IOException {
+        if (columns == null) {
+            columns = new ArrayList<>(values.keySet());
+            writeCsvLine(new ArrayList<>(columns));
+            writer.newLine();
+        }
+        List<Object> cells = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            cells.add(values.get(column));
+        }
+        writeCsvLine(cells);
+    }
+
+    private void writeCsvLine(List<?> cells) throws IOException {
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(cells.get(i)));
+        }
+    }
+
+    private String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof String ? (String) value : value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
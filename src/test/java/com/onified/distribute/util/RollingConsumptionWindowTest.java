@@ -0,0 +1,105 @@
+package com.onified.distribute.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the incremental window agrees with the batch computation it replaces. Rows are dated at
+ * midnight and the batch run is taken at noon of the newest day, where the batch cutoffs of now minus
+ * 7, 14, 30 and 60 days select the same whole days as the rolling windows.
+ */
+class RollingConsumptionWindowTest {
+
+    private static final double TOLERANCE = 1e-6;
+
+    @Test
+    void incrementalStatsMatchBatchStatsOverRandomizedDays() {
+        for (long seed = 1; seed <= 20; seed++) {
+            runRandomized(new Random(seed));
+        }
+    }
+
+    @Test
+    void gapLongerThanCapacityEmptiesWindow() {
+        LocalDate today = LocalDate.of(2026, 3, 1);
+        RollingConsumptionWindow window = new RollingConsumptionWindow(today);
+        window.add(today, 5.0);
+        window.add(today.minusDays(3), 7.0);
+
+        window.advanceTo(today.plusDays(RollingConsumptionWindow.CAPACITY_DAYS));
+
+        ConsumptionWindowStats stats = window.toStats();
+        assertEquals(0.0, stats.getAdc60d());
+        assertEquals(0, stats.getDataPointsUsed());
+        assertEquals(null, stats.getLastConsumptionDate());
+    }
+
+    private void runRandomized(Random random) {
+        LocalDate anchor = LocalDate.of(2026, 1, 1).plusDays(random.nextInt(365));
+        RollingConsumptionWindow window = new RollingConsumptionWindow(anchor);
+        List<LocalDate> days = new ArrayList<>();
+        List<Double> quantities = new ArrayList<>();
+
+        for (int step = 0; step < 2_000; step++) {
+            int operation = random.nextInt(100);
+            if (operation < 55 || days.isEmpty()) {
+                // Includes rows up to ten days older than the longest window, which both sides ignore
+                LocalDate day = anchor.minusDays(random.nextInt(RollingConsumptionWindow.CAPACITY_DAYS + 10));
+                double quantity = random.nextInt(500);
+                window.add(day, quantity);
+                days.add(day);
+                quantities.add(quantity);
+            } else if (operation < 80) {
+                int index = random.nextInt(days.size());
+                window.remove(days.remove(index), quantities.remove(index));
+            } else if (operation < 97) {
+                anchor = anchor.plusDays(random.nextInt(4));
+                window.advanceTo(anchor);
+            } else if (operation < 98) {
+                anchor = anchor.plusDays(RollingConsumptionWindow.CAPACITY_DAYS + random.nextInt(5));
+                window.advanceTo(anchor);
+            } else {
+                window = restored(window);
+            }
+            assertSameStats(batchStats(days, quantities, anchor), window.toStats(), step);
+        }
+    }
+
+    /**
+     * Round trip through the persisted form, as the window service stores and reloads it
+     */
+    private static RollingConsumptionWindow restored(RollingConsumptionWindow window) {
+        return new RollingConsumptionWindow(window.getAnchorDay().toEpochDay(),
+                window.getDailyTotals().clone(), window.getDailyCounts().clone(), window.getDailySquares().clone(),
+                window.getWindowSums().clone(), window.getWindowCounts().clone(), window.getDeviationSquares());
+    }
+
+    private static ConsumptionWindowStats batchStats(List<LocalDate> days, List<Double> quantities, LocalDate anchor) {
+        long[] consumedAt = new long[days.size()];
+        double[] values = new double[days.size()];
+        for (int i = 0; i < days.size(); i++) {
+            consumedAt[i] = ConsumptionWindowStats.toEpochMillis(days.get(i).atStartOfDay());
+            values[i] = quantities.get(i);
+        }
+        long nowMillis = ConsumptionWindowStats.toEpochMillis(anchor.atTime(12, 0));
+        return ConsumptionWindowStats.compute(consumedAt, values, days.size(), nowMillis);
+    }
+
+    private static void assertSameStats(ConsumptionWindowStats expected, ConsumptionWindowStats actual, int step) {
+        String context = "step " + step;
+        assertEquals(expected.getAdc7d(), actual.getAdc7d(), TOLERANCE, context);
+        assertEquals(expected.getAdc14d(), actual.getAdc14d(), TOLERANCE, context);
+        assertEquals(expected.getAdc30d(), actual.getAdc30d(), TOLERANCE, context);
+        assertEquals(expected.getAdc60d(), actual.getAdc60d(), TOLERANCE, context);
+        assertEquals(expected.getDataPointsUsed(), actual.getDataPointsUsed(), context);
+        assertEquals(expected.getStdDeviation(), actual.getStdDeviation(), TOLERANCE, context);
+        assertEquals(expected.getCoefficientOfVariation(), actual.getCoefficientOfVariation(), TOLERANCE, context);
+        assertEquals(expected.getLastConsumptionDate(), actual.getLastConsumptionDate(), context);
+    }
+}